@@ -0,0 +1,63 @@
+package com.reactive.ReactiveProject.benchmarks;
+
+import com.reactive.ReactiveProject.cache.BookCache;
+import com.reactive.ReactiveProject.cache.BookLoader;
+import com.reactive.ReactiveProject.controller.BookController;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import com.reactive.ReactiveProject.repositories.InMemoryBookRepository;
+import com.reactive.ReactiveProject.search.BookSearchEngine;
+import com.reactive.ReactiveProject.services.BookService;
+import com.reactive.ReactiveProject.services.impl.BookServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+// wires the service and controller by hand, the way Spring would, around a given repository
+final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    //    the inmemory profile's repository, so no database time is measured
+    static InMemoryBookRepository bookRepository(int size) {
+        InMemoryBookRepository bookRepository = new InMemoryBookRepository();
+        bookRepository.insertAll(IntStream.rangeClosed(1, size).mapToObj(Benchmarks::book).toList()).blockLast();
+        return bookRepository;
+    }
+
+    static Book book(int bookId) {
+        return new Book(bookId, "Book " + bookId, "Description of book " + bookId + " ".repeat(64),
+                "Publisher " + bookId % 50, "Author " + bookId % 500);
+    }
+
+    static BookServiceImpl bookService(BookRepository bookRepository) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookLoader bookLoader = new BookLoader(meterRegistry);
+        ReflectionTestUtils.setField(bookLoader, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(bookLoader, "batchingEnabled", false);
+
+        BookServiceImpl bookService = new BookServiceImpl();
+        ReflectionTestUtils.setField(bookService, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(bookService, "bookCache",
+                new BookCache(10_000, Duration.ofMinutes(10), meterRegistry));
+        ReflectionTestUtils.setField(bookService, "bookLoader", bookLoader);
+        ReflectionTestUtils.setField(bookService, "searchEngine",
+                (BookSearchEngine) (query, page, size, fields) -> Flux.empty());
+        ReflectionTestUtils.setField(bookService, "cacheEnabled", true);
+        ReflectionTestUtils.setField(bookService, "defaultPageSize", 100);
+        ReflectionTestUtils.setField(bookService, "maxPageSize", 500);
+        ReflectionTestUtils.setField(bookService, "maxStreamSize", 100_000);
+        ReflectionTestUtils.setField(bookService, "maxGetIds", 1000);
+        return bookService;
+    }
+
+    static BookController bookController(BookService bookService) {
+        BookController bookController = new BookController();
+        ReflectionTestUtils.setField(bookController, "bookService", bookService);
+        return bookController;
+    }
+}
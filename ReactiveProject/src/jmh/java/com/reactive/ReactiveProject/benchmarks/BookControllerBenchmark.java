@@ -0,0 +1,80 @@
+package com.reactive.ReactiveProject.benchmarks;
+
+import com.reactive.ReactiveProject.entities.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// full WebFlux dispatch for BookController routes (routing, argument resolution, codecs)
+// through an in-process connector, so neither the network nor a database is measured
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookControllerBenchmark {
+
+    private static final int BOOKS = 10_000;
+
+    private WebTestClient webTestClient;
+
+    private Book update;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        webTestClient = WebTestClient
+                .bindToController(Benchmarks.bookController(Benchmarks.bookService(Benchmarks.bookRepository(BOOKS))))
+                .configureClient()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+        update = new Book(0, "Updated name", "Updated description", "Updated publisher", "Updated author");
+    }
+
+    @Benchmark
+    public byte[] getBook() {
+        return webTestClient.get().uri("/books/{bid}", nextId())
+                .exchange()
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+
+    @Benchmark
+    public byte[] getPage() {
+        return webTestClient.get().uri("/books?limit=100")
+                .exchange()
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+
+    @Benchmark
+    public byte[] streamNdjson() {
+        return webTestClient.get().uri("/books?limit=1000")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+
+    @Benchmark
+    public byte[] updateBook() {
+        return webTestClient.put().uri("/books/{bookId}", nextId())
+                .bodyValue(update)
+                .exchange()
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+
+    private static int nextId() {
+        return ThreadLocalRandom.current().nextInt(1, BOOKS + 1);
+    }
+}
@@ -0,0 +1,82 @@
+package com.reactive.ReactiveProject.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.ReactiveProject.codec.CachedBookJsonEncoder;
+import com.reactive.ReactiveProject.entities.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// GET /books/{bid} body encoding: Jackson on every call versus CachedBookJsonEncoder. The cached path is
+// measured for the instance the book cache hands out and for an equal copy, as a fresh database read
+// would produce. Compare gc.alloc.rate.norm from the gc profiler, which the jmh profile enables.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookEncodingBenchmark {
+
+    private static final ResolvableType BOOK_TYPE = ResolvableType.forClass(Book.class);
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    private Jackson2JsonEncoder jacksonEncoder;
+
+    private CachedBookJsonEncoder cachedEncoder;
+
+    private Book book;
+
+    private Book equalBook;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        jacksonEncoder = new Jackson2JsonEncoder(objectMapper);
+        cachedEncoder = new CachedBookJsonEncoder(objectMapper, 32 * 1024 * 1024);
+        book = Benchmarks.book(1);
+        equalBook = new Book(book.getBookId(), new String(book.getName()), new String(book.getDescription()),
+                new String(book.getPublisher()), new String(book.getAuthor()));
+        cachedEncoder.bytes(book);
+    }
+
+    @Benchmark
+    public int jackson() {
+        return release(jacksonEncoder.encodeValue(book, bufferFactory, BOOK_TYPE, MediaType.APPLICATION_JSON, Map.of()));
+    }
+
+    @Benchmark
+    public int cachedSameInstance() {
+        return release(cachedEncoder.encodeValue(book, bufferFactory, BOOK_TYPE, MediaType.APPLICATION_JSON, Map.of()));
+    }
+
+    @Benchmark
+    public int cachedEqualCopy() {
+        return release(cachedEncoder.encodeValue(equalBook, bufferFactory, BOOK_TYPE, MediaType.APPLICATION_JSON, Map.of()));
+    }
+
+    private static int release(DataBuffer buffer) {
+        int bytes = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+}
@@ -0,0 +1,134 @@
+package com.reactive.ReactiveProject.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.ReactiveProject.entities.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Jackson cost of one Book and of the Flux<Book> bodies written by the list and stream routes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookJsonBenchmark {
+
+    private static final ResolvableType BOOK_TYPE = ResolvableType.forClass(Book.class);
+
+    @Param({"100", "10000"})
+    public int books;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    private Jackson2JsonEncoder encoder;
+
+    private Jackson2JsonDecoder decoder;
+
+    private Book book;
+
+    private byte[] bookJson;
+
+    private List<Book> bookList;
+
+    private byte[] arrayJson;
+
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        encoder = new Jackson2JsonEncoder(objectMapper);
+        decoder = new Jackson2JsonDecoder(objectMapper);
+        decoder.setMaxInMemorySize(-1);
+        book = Benchmarks.book(1);
+        bookJson = objectMapper.writeValueAsBytes(book);
+        bookList = IntStream.rangeClosed(1, books).mapToObj(Benchmarks::book).toList();
+        arrayJson = objectMapper.writeValueAsBytes(bookList);
+        ndjson = join(encode(MediaType.APPLICATION_NDJSON));
+    }
+
+    @Benchmark
+    public byte[] encodeBook() throws Exception {
+        return objectMapper.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public Book decodeBook() throws Exception {
+        return objectMapper.readValue(bookJson, Book.class);
+    }
+
+    //    GET /books writes a JSON array
+    @Benchmark
+    public long encodeJsonArray() {
+        return release(encode(MediaType.APPLICATION_JSON));
+    }
+
+    //    GET /books with Accept: application/x-ndjson writes one buffer per book
+    @Benchmark
+    public long encodeNdjson() {
+        return release(encode(MediaType.APPLICATION_NDJSON));
+    }
+
+    //    POST /books/batch reads either form
+    @Benchmark
+    public long decodeJsonArray() {
+        return decoder.decode(Flux.just(bufferFactory.wrap(arrayJson)), BOOK_TYPE, MediaType.APPLICATION_JSON, Map.of())
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public long decodeNdjson() {
+        return decoder.decode(Flux.just(bufferFactory.wrap(ndjson)), BOOK_TYPE, MediaType.APPLICATION_NDJSON, Map.of())
+                .count()
+                .block();
+    }
+
+    private Flux<DataBuffer> encode(MediaType mediaType) {
+        return encoder.encode(Flux.fromIterable(bookList), bufferFactory, BOOK_TYPE, mediaType, Map.of());
+    }
+
+    private static long release(Flux<DataBuffer> buffers) {
+        return buffers.map(buffer -> {
+                    int bytes = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return (long) bytes;
+                })
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    private static byte[] join(Flux<DataBuffer> buffers) {
+        DataBuffer joined = DataBufferUtils.join(buffers).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
+        return bytes;
+    }
+}
@@ -0,0 +1,160 @@
+package com.reactive.ReactiveProject.benchmarks;
+
+import com.reactive.ReactiveProject.ReactiveProjectApplication;
+import com.reactive.ReactiveProject.controller.BookCursor;
+import com.reactive.ReactiveProject.dto.BookStreamRequest;
+import com.reactive.ReactiveProject.dto.BookUpsertResult;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// The same operations through BookController over HTTP/JSON and BookRSocketController over RSocket/CBOR,
+// against the application started with the inmemory profile on loopback. Eight threads share one WebClient,
+// which spreads them over pooled HTTP/1.1 connections, and one requester per RSocket transport, which
+// multiplexes them over a single connection.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BookRSocketBenchmark {
+
+    private static final int BOOKS = 10_000;
+
+    private static final int STREAM_SIZE = 1000;
+
+    private static final int UPSERTS = 100;
+
+    private ConfigurableApplicationContext context;
+
+    private WebClient webClient;
+
+    private RSocketRequester tcp;
+
+    private RSocketRequester webSocket;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ReactiveProjectApplication.class)
+                .profiles("inmemory")
+                .properties("server.port=0", "spring.rsocket.server.port=0", "logging.level.root=warn")
+                .run();
+        context.getBean(BookRepository.class)
+                .insertAll(IntStream.rangeClosed(1, BOOKS).mapToObj(Benchmarks::book).toList())
+                .blockLast();
+        int httpPort = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        int rsocketPort = context.getEnvironment().getRequiredProperty("local.rsocket.server.port", Integer.class);
+        String webSocketPath = context.getEnvironment().getRequiredProperty("books.rsocket.websocket-path");
+
+        webClient = context.getBean(WebClient.Builder.class)
+                .baseUrl("http://localhost:" + httpPort)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+        tcp = context.getBean(RSocketRequester.Builder.class).tcp("localhost", rsocketPort);
+        webSocket = context.getBean(RSocketRequester.Builder.class)
+                .websocket(URI.create("ws://localhost:" + httpPort + webSocketPath));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tcp.dispose();
+        webSocket.dispose();
+        context.close();
+    }
+
+    @Benchmark
+    public Book httpGet() {
+        return webClient.get().uri("/books/{bid}", nextId())
+                .retrieve()
+                .bodyToMono(Book.class)
+                .block();
+    }
+
+    @Benchmark
+    public Book rsocketTcpGet() {
+        return tcp.route("books.get").data(nextId()).retrieveMono(Book.class).block();
+    }
+
+    @Benchmark
+    public Book rsocketWebSocketGet() {
+        return webSocket.route("books.get").data(nextId()).retrieveMono(Book.class).block();
+    }
+
+    @Benchmark
+    public Long httpStream() {
+        return webClient.get().uri("/books?after={after}&limit={limit}", BookCursor.encode(streamStart()), STREAM_SIZE)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Book.class)
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public Long rsocketTcpStream() {
+        return tcp.route("books.all").data(new BookStreamRequest(streamStart(), STREAM_SIZE))
+                .retrieveFlux(Book.class)
+                .count()
+                .block();
+    }
+
+    //    HTTP has no bulk update, so the same books go out as concurrent PUTs
+    @Benchmark
+    public List<Book> httpUpdates() {
+        return Flux.fromIterable(updates())
+                .flatMapSequential(book -> webClient.put().uri("/books/{bookId}", book.getBookId())
+                        .bodyValue(book)
+                        .retrieve()
+                        .bodyToMono(Book.class), 16)
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<BookUpsertResult> rsocketTcpUpserts() {
+        return tcp.route("books.upsert").data(Flux.fromIterable(updates()))
+                .retrieveFlux(BookUpsertResult.class)
+                .collectList()
+                .block();
+    }
+
+    private static List<Book> updates() {
+        int first = ThreadLocalRandom.current().nextInt(1, BOOKS - UPSERTS + 2);
+        return IntStream.range(first, first + UPSERTS).mapToObj(Benchmarks::book).toList();
+    }
+
+    //    leaves a full STREAM_SIZE books after the cursor
+    private static int streamStart() {
+        return ThreadLocalRandom.current().nextInt(0, BOOKS - STREAM_SIZE + 1);
+    }
+
+    private static int nextId() {
+        return ThreadLocalRandom.current().nextInt(1, BOOKS + 1);
+    }
+}
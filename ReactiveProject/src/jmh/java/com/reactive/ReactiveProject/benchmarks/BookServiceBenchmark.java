@@ -0,0 +1,71 @@
+package com.reactive.ReactiveProject.benchmarks;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.services.impl.BookServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// BookServiceImpl write paths against InMemoryBookRepository: the reactive assembly plus cache and index upkeep
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    private static final int BOOKS = 10_000;
+
+    private BookServiceImpl bookService;
+
+    private Book update;
+
+    private Book patch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookService = Benchmarks.bookService(Benchmarks.bookRepository(BOOKS));
+        update = new Book(0, "Updated name", "Updated description", "Updated publisher", "Updated author");
+        patch = new Book();
+        patch.setName("Patched name");
+    }
+
+    @Benchmark
+    public Book update() {
+        return bookService.update(update, nextId()).block();
+    }
+
+    @Benchmark
+    public Book partialUpdate() {
+        return bookService.partialUpdate(patch, nextId()).block();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Book partialUpdateContended() {
+        return bookService.partialUpdate(patch, nextId()).block();
+    }
+
+    //    cache hit after the first pass over the ids
+    @Benchmark
+    public Book get() {
+        return bookService.get(nextId()).block();
+    }
+
+    private static int nextId() {
+        return ThreadLocalRandom.current().nextInt(1, BOOKS + 1);
+    }
+}
@@ -0,0 +1,63 @@
+package com.reactive.ReactiveProject.benchmarks;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.InMemoryBookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// raw InMemoryBookRepository throughput, the floor under every other benchmark that uses it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class InMemoryBookRepositoryBenchmark {
+
+    private static final int BOOKS = 100_000;
+
+    private InMemoryBookRepository bookRepository;
+
+    private Book patch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookRepository = Benchmarks.bookRepository(BOOKS);
+        patch = new Book();
+        patch.setPublisher("Patched publisher");
+    }
+
+    @Benchmark
+    public Book findById() {
+        return bookRepository.findById(nextId()).block();
+    }
+
+    //    about 200 books per author
+    @Benchmark
+    public long findByAuthor() {
+        return bookRepository.findByAuthor("Author " + ThreadLocalRandom.current().nextInt(500)).count().block();
+    }
+
+    @Benchmark
+    public Book partialUpdate() {
+        return bookRepository.partialUpdateReturning(nextId(), patch).block();
+    }
+
+    private static int nextId() {
+        return ThreadLocalRandom.current().nextInt(1, BOOKS + 1);
+    }
+}
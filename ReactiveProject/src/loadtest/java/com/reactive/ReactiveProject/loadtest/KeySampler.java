@@ -0,0 +1,51 @@
+package com.reactive.ReactiveProject.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+// draws book ids with Zipf skew: rank k is picked with weight 1/k^skew, so skew 0 is uniform
+// and skew around 1 sends most traffic to a few hot keys
+final class KeySampler {
+
+    private final int[] bookIds;
+
+    private final double[] cumulative;
+
+    KeySampler(int[] bookIds, double skew) {
+        this.bookIds = bookIds.clone();
+        //    hot keys are spread over the id range rather than being the lowest ids
+        Random random = new Random(42);
+        for (int i = this.bookIds.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = this.bookIds[i];
+            this.bookIds[i] = this.bookIds[j];
+            this.bookIds[j] = swap;
+        }
+        if (skew <= 0) {
+            this.cumulative = null;
+            return;
+        }
+        this.cumulative = new double[bookIds.length];
+        double total = 0;
+        for (int rank = 0; rank < bookIds.length; rank++) {
+            total += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < bookIds.length; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    int next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (cumulative == null) {
+            return bookIds[random.nextInt(bookIds.length)];
+        }
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return bookIds[Math.min(rank, bookIds.length - 1)];
+    }
+}
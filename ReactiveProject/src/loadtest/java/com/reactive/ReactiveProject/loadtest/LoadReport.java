@@ -0,0 +1,111 @@
+package com.reactive.ReactiveProject.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// per-route latency histograms in microseconds, measured from each request's scheduled start
+final class LoadReport {
+
+    private final Map<Route, Recorder> latencies = new EnumMap<>(Route.class);
+
+    private final Map<Route, LongAdder> errors = new EnumMap<>(Route.class);
+
+    private final LongAdder bytes = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    LoadReport() {
+        for (Route route : Route.values()) {
+            latencies.put(route, new Recorder(3));
+            errors.put(route, new LongAdder());
+        }
+    }
+
+    void record(Route route, long latencyNanos, boolean success, long responseBytes) {
+        latencies.get(route).recordValue(Math.max(1, latencyNanos / 1000));
+        bytes.add(responseBytes);
+        if (!success) {
+            errors.get(route).increment();
+        }
+    }
+
+    //    the generator was already max-outstanding requests behind; counted, never silently skipped
+    void drop() {
+        dropped.increment();
+    }
+
+    Map<String, Object> summarize(Duration measured, int targetRate) {
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (Route route : Route.values()) {
+            Histogram histogram = latencies.get(route).getIntervalHistogram();
+            long routeErrors = errors.get(route).sum();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += routeErrors;
+            routes.put(route.option(), percentiles(histogram, routeErrors));
+        }
+        double seconds = measured.toNanos() / 1e9;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("targetRate", targetRate);
+        summary.put("throughput", total.getTotalCount() / seconds);
+        summary.put("megabytesPerSecond", bytes.sum() / seconds / (1024 * 1024));
+        summary.put("dropped", dropped.sum());
+        summary.put("all", percentiles(total, totalErrors));
+        summary.put("routes", routes);
+        return summary;
+    }
+
+    static void print(Map<String, Object> summary, PrintStream out) {
+        out.printf("target %s req/s, achieved %.1f req/s, %.2f MB/s, %d dropped%n",
+                summary.get("targetRate"), summary.get("throughput"), summary.get("megabytesPerSecond"),
+                summary.get("dropped"));
+        out.printf("%-10s %10s %8s %10s %10s %10s %10s%n", "route", "count", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Number>> routes = (Map<String, Map<String, Number>>) summary.get("routes");
+        routes.forEach((route, percentiles) -> printRow(out, route, percentiles));
+        @SuppressWarnings("unchecked")
+        Map<String, Number> all = (Map<String, Number>) summary.get("all");
+        printRow(out, "all", all);
+    }
+
+    static void write(Map<String, Object> summary, String path) throws IOException {
+        File file = new File(path);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, summary);
+    }
+
+    private static Map<String, Number> percentiles(Histogram histogram, long errors) {
+        Map<String, Number> percentiles = new LinkedHashMap<>();
+        percentiles.put("count", histogram.getTotalCount());
+        percentiles.put("errors", errors);
+        percentiles.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        percentiles.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        percentiles.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+        percentiles.put("max", histogram.getMaxValue() / 1000.0);
+        return percentiles;
+    }
+
+    private static void printRow(PrintStream out, String route, Map<String, Number> percentiles) {
+        out.printf("%-10s %10d %8d %10.2f %10.2f %10.2f %10.2f%n", route,
+                percentiles.get("count").longValue(), percentiles.get("errors").longValue(),
+                percentiles.get("p50").doubleValue(), percentiles.get("p99").doubleValue(),
+                percentiles.get("p999").doubleValue(), percentiles.get("max").doubleValue());
+    }
+}
@@ -0,0 +1,256 @@
+package com.reactive.ReactiveProject.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.ReactiveProject.ReactiveProjectApplication;
+import com.reactive.ReactiveProject.controller.BookCursor;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-model load generator for the book API: requests are started on a fixed schedule whatever the
+// server's response times, and latency is taken from each request's scheduled start, so a stalled
+// server shows up in the percentiles instead of silently lowering the offered load.
+//
+//   mvn -Ploadtest verify -Dloadtest.args="--target=http://localhost:8081 --rate=2000 --skew=1.1"
+//   mvn -Ploadtest verify -Dloadtest.args="--embedded=true --rate=20000"   (offline, inmemory profile)
+public final class LoadTest {
+
+    private static final String JSON = "application/json";
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final LoadTestOptions options;
+
+    private final HttpClient httpClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LoadReport report = new LoadReport();
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final Route.Mix readMix;
+
+    private final Route.Mix writeMix;
+
+    private KeySampler keys;
+
+    private LoadTest(LoadTestOptions options, String target) {
+        this.options = options;
+        this.readMix = Route.Mix.parse(options.readMix(), true);
+        this.writeMix = Route.Mix.parse(options.writeMix(), false);
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(options.connections())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.httpClient = HttpClient.create(connections).baseUrl(target);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext application = null;
+        String target = options.target();
+        if (options.embedded()) {
+            //    same JVM as the generator: convenient, but give the server its own machine for real numbers
+            application = new SpringApplicationBuilder(ReactiveProjectApplication.class)
+                    .profiles(options.profiles().isBlank() ? new String[0] : options.profiles().split(","))
+                    .properties("server.port=0")
+                    .run();
+            target = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            LoadTest loadTest = new LoadTest(options, target);
+            loadTest.prepareKeys();
+            Map<String, Object> summary = loadTest.run();
+            LoadReport.print(summary, System.out);
+            LoadReport.write(summary, options.report());
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private Map<String, Object> run() {
+        long interval = Math.max(1, 1_000_000_000L / options.rate());
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        System.out.printf("offering %d req/s for %s after %s warmup%n", options.rate(), options.duration(),
+                options.warmup());
+        long sent = 0;
+        for (long now = start; now < end; now = System.nanoTime()) {
+            //    catch up on every start that fell due since the last wakeup
+            for (long due = (now - start) / interval; sent <= due; sent++) {
+                long scheduled = start + sent * interval;
+                if (scheduled >= end) {
+                    break;
+                }
+                send(scheduled, scheduled >= measureFrom);
+            }
+            LockSupport.parkNanos(Math.min(interval, 200_000));
+        }
+        long drainUntil = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < drainUntil) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        return report.summarize(Duration.ofNanos(end - measureFrom), options.rate());
+    }
+
+    private void send(long scheduled, boolean measured) {
+        boolean read = ThreadLocalRandom.current().nextDouble() < options.readRatio();
+        Route route = read ? readMix.next() : writeMix.next();
+        if (outstanding.incrementAndGet() > options.maxOutstanding()) {
+            outstanding.decrementAndGet();
+            if (measured) {
+                report.drop();
+            }
+            return;
+        }
+        request(route).subscribe(
+                status -> {
+                    if (measured) {
+                        report.record(route, System.nanoTime() - scheduled, status.status() < 400, status.bytes());
+                    }
+                },
+                error -> {
+                    outstanding.decrementAndGet();
+                    if (measured) {
+                        report.record(route, System.nanoTime() - scheduled, false, 0);
+                    }
+                },
+                outstanding::decrementAndGet);
+    }
+
+    private Mono<Response> request(Route route) {
+        return switch (route) {
+            case GET -> exchange(HttpMethod.GET, "/books/" + keys.next(), JSON, null);
+            case PAGE -> exchange(HttpMethod.GET, "/books?limit=" + options.pageSize(), JSON, null);
+            case STREAM -> exchange(HttpMethod.GET, "/books?limit=" + options.streamSize(), NDJSON, null);
+            case MULTIGET -> {
+                StringJoiner ids = new StringJoiner(",");
+                for (int i = 0; i < options.multiGetSize(); i++) {
+                    ids.add(Integer.toString(keys.next()));
+                }
+                yield exchange(HttpMethod.GET, "/books?ids=" + ids, JSON, null);
+            }
+            case AUTHOR -> exchange(HttpMethod.GET, "/books/author/"
+                    + URLEncoder.encode(author(keys.next()), StandardCharsets.UTF_8).replace("+", "%20"), JSON, null);
+            case UPDATE -> {
+                int bookId = keys.next();
+                yield exchange(HttpMethod.PUT, "/books/" + bookId, JSON, json(book(bookId, "updated")));
+            }
+            case PATCH -> exchange(HttpMethod.PATCH, "/books/" + keys.next(), JSON,
+                    "{\"publisher\":\"Publisher " + ThreadLocalRandom.current().nextInt(100) + "\"}");
+        };
+    }
+
+    private Mono<Response> exchange(HttpMethod method, String uri, String accept, String body) {
+        HttpClient.RequestSender sender = httpClient
+                .headers(headers -> {
+                    headers.set(HttpHeaderNames.ACCEPT, accept);
+                    if (body != null) {
+                        headers.set(HttpHeaderNames.CONTENT_TYPE, JSON);
+                    }
+                })
+                .request(method)
+                .uri(uri);
+        HttpClient.ResponseReceiver<?> receiver = body == null ? sender : sender.send(ByteBufFlux.fromString(Mono.just(body)));
+        //    bodies are counted and released as they arrive, never aggregated
+        return receiver.response((response, content) -> content
+                        .map(ByteBuf::readableBytes)
+                        .reduce(0L, (total, bytes) -> total + bytes)
+                        .map(bytes -> new Response(response.status().code(), bytes)))
+                .next();
+    }
+
+    //    the generated ids of freshly seeded books, or the first --keys ids already in the table
+    private void prepareKeys() throws Exception {
+        List<Integer> bookIds = new ArrayList<>(options.keys());
+        if (options.seed()) {
+            for (int offset = 0; offset < options.keys(); offset += 5000) {
+                List<Map<String, String>> books = new ArrayList<>();
+                for (int i = offset; i < Math.min(options.keys(), offset + 5000); i++) {
+                    books.add(book(i, "seeded"));
+                }
+                String results = exchangeBody(HttpMethod.POST, "/books/batch", objectMapper.writeValueAsString(books));
+                for (JsonNode chunk : objectMapper.readTree(results)) {
+                    if (!chunk.path("error").isMissingNode() && !chunk.path("error").isNull()) {
+                        throw new IllegalStateException("Seeding failed: " + chunk.path("error").asText());
+                    }
+                    chunk.path("bookIds").forEach(bookId -> bookIds.add(bookId.asInt()));
+                }
+            }
+        } else {
+            int limit = Math.min(options.keys(), 500);
+            String after = "";
+            while (bookIds.size() < options.keys()) {
+                JsonNode books = objectMapper.readTree(exchangeBody(HttpMethod.GET,
+                        "/books?limit=" + limit + "&after=" + after, null));
+                books.forEach(book -> bookIds.add(book.path("bookId").asInt()));
+                if (books.size() < limit) {
+                    break;
+                }
+                after = BookCursor.encode(bookIds.get(bookIds.size() - 1));
+            }
+        }
+        if (bookIds.isEmpty()) {
+            throw new IllegalStateException("No books to read; run with --seed=true or against a populated table");
+        }
+        keys = new KeySampler(bookIds.stream().limit(options.keys()).mapToInt(Integer::intValue).toArray(), options.skew());
+        System.out.printf("using %d book ids with skew %.2f%n", Math.min(bookIds.size(), options.keys()), options.skew());
+    }
+
+    private String exchangeBody(HttpMethod method, String uri, String body) {
+        HttpClient.RequestSender sender = httpClient
+                .headers(headers -> headers.set(HttpHeaderNames.ACCEPT, JSON).set(HttpHeaderNames.CONTENT_TYPE, JSON))
+                .request(method)
+                .uri(uri);
+        HttpClient.ResponseReceiver<?> receiver = body == null ? sender : sender.send(ByteBufFlux.fromString(Mono.just(body)));
+        return receiver.responseSingle((response, content) -> response.status().code() >= 400
+                        ? Mono.error(new IllegalStateException(method + " " + uri + " returned " + response.status()))
+                        : content.asString())
+                .block(Duration.ofMinutes(1));
+    }
+
+    private Map<String, String> book(int key, String state) {
+        return Map.of(
+                "name", "Load test book " + key,
+                "description", "A " + state + " book used by the load generator",
+                "publisher", "Publisher " + key % 100,
+                "author", author(key));
+    }
+
+    private String author(int key) {
+        return "Author " + key % options.authors();
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Response(int status, long bytes) {
+    }
+}
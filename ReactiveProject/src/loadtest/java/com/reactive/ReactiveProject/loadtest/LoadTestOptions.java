@@ -0,0 +1,72 @@
+package com.reactive.ReactiveProject.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// --name=value command line options; every option has a default so a bare run works
+record LoadTestOptions(String target,
+                       boolean embedded,
+                       String profiles,
+                       int rate,
+                       Duration duration,
+                       Duration warmup,
+                       int connections,
+                       int maxOutstanding,
+                       int keys,
+                       boolean seed,
+                       double skew,
+                       int authors,
+                       double readRatio,
+                       String readMix,
+                       String writeMix,
+                       int pageSize,
+                       int streamSize,
+                       int multiGetSize,
+                       String report) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        LoadTestOptions parsed = new LoadTestOptions(
+                take(options, "target", "http://localhost:8081"),
+                Boolean.parseBoolean(take(options, "embedded", "false")),
+                take(options, "profiles", "inmemory"),
+                Integer.parseInt(take(options, "rate", "1000")),
+                DurationStyle.detectAndParse(take(options, "duration", "30s")),
+                DurationStyle.detectAndParse(take(options, "warmup", "5s")),
+                Integer.parseInt(take(options, "connections", "64")),
+                Integer.parseInt(take(options, "max-outstanding", "10000")),
+                Integer.parseInt(take(options, "keys", "10000")),
+                Boolean.parseBoolean(take(options, "seed", "true")),
+                Double.parseDouble(take(options, "skew", "0.99")),
+                Integer.parseInt(take(options, "authors", "500")),
+                Double.parseDouble(take(options, "read-ratio", "0.9")),
+                take(options, "read-mix", "get:70,page:10,stream:5,multiget:5,author:10"),
+                take(options, "write-mix", "update:50,patch:50"),
+                Integer.parseInt(take(options, "page-size", "100")),
+                Integer.parseInt(take(options, "stream-size", "1000")),
+                Integer.parseInt(take(options, "multi-get-size", "20")),
+                take(options, "report", "target/loadtest-result.json"));
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + options.keySet());
+        }
+        if (parsed.rate() <= 0 || parsed.keys() <= 0 || parsed.readRatio() < 0 || parsed.readRatio() > 1) {
+            throw new IllegalArgumentException("rate and keys must be positive and read-ratio within [0, 1]");
+        }
+        return parsed;
+    }
+
+    private static String take(Map<String, String> options, String name, String defaultValue) {
+        String value = options.remove(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,76 @@
+package com.reactive.ReactiveProject.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+// the BookController routes the generator can drive, named as in --read-mix and --write-mix
+enum Route {
+
+    GET("get", true),
+    PAGE("page", true),
+    STREAM("stream", true),
+    MULTIGET("multiget", true),
+    AUTHOR("author", true),
+    UPDATE("update", false),
+    PATCH("patch", false);
+
+    private final String option;
+
+    private final boolean read;
+
+    Route(String option, boolean read) {
+        this.option = option;
+        this.read = read;
+    }
+
+    String option() {
+        return option;
+    }
+
+    //    picks routes with the weights of a "name:weight,name:weight" mix
+    static final class Mix {
+
+        private final Route[] routes;
+
+        private final int[] cumulative;
+
+        private Mix(Route[] routes, int[] cumulative) {
+            this.routes = routes;
+            this.cumulative = cumulative;
+        }
+
+        static Mix parse(String mix, boolean read) {
+            List<Route> routes = new ArrayList<>();
+            List<Integer> cumulative = new ArrayList<>();
+            int total = 0;
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split(":");
+                Route route = Route.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+                if (route.read != read) {
+                    throw new IllegalArgumentException(route.option + " is not a " + (read ? "read" : "write") + " route");
+                }
+                int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+                if (weight > 0) {
+                    total += weight;
+                    routes.add(route);
+                    cumulative.add(total);
+                }
+            }
+            if (routes.isEmpty()) {
+                throw new IllegalArgumentException("Empty route mix: " + mix);
+            }
+            return new Mix(routes.toArray(new Route[0]), cumulative.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        Route next() {
+            int pick = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+            int i = 0;
+            while (cumulative[i] <= pick) {
+                i++;
+            }
+            return routes[i];
+        }
+    }
+}
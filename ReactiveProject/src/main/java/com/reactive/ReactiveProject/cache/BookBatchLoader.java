@@ -0,0 +1,144 @@
+package com.reactive.ReactiveProject.cache;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// collects the ids requested within a short window and reads them with one query
+@Component
+public class BookBatchLoader {
+
+    private final BookRepository bookRepository;
+
+    private final DistributionSummary batchSizes;
+
+    private final int maxBatchSize;
+
+    private final Duration batchWindow;
+
+    private final int maxConcurrentBatches;
+
+    private final int maxQueuedBatches;
+
+    private final Duration loadTimeout;
+
+    //    every load that has been handed to the pipeline and not yet answered
+    private final Set<PendingLoad> inFlight = ConcurrentHashMap.newKeySet();
+
+    private volatile FluxSink<PendingLoad> pending;
+
+    private volatile boolean closed;
+
+    public BookBatchLoader(BookRepository bookRepository,
+                           @Value("${books.loader.max-batch-size:64}") int maxBatchSize,
+                           @Value("${books.loader.batch-window:2ms}") Duration batchWindow,
+                           @Value("${books.loader.max-concurrent-batches:4}") int maxConcurrentBatches,
+                           @Value("${books.loader.max-queued-batches:256}") int maxQueuedBatches,
+                           @Value("${books.loader.timeout:5s}") Duration loadTimeout,
+                           MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindow = batchWindow;
+        this.maxConcurrentBatches = maxConcurrentBatches;
+        this.maxQueuedBatches = maxQueuedBatches;
+        this.loadTimeout = loadTimeout;
+        this.batchSizes = DistributionSummary.builder("books.loader.batch.size")
+                .description("Distinct ids read per batched query")
+                .baseUnit("ids")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        start();
+    }
+
+    //    a caller still waiting after the timeout gets a 503 rather than hanging, and nothing is cached for it
+    public Mono<Book> load(int bookId) {
+        return Mono.defer(() -> {
+            PendingLoad load = new PendingLoad(bookId, new CompletableFuture<>());
+            inFlight.add(load);
+            load.result().whenComplete((book, error) -> inFlight.remove(load));
+            pending.next(load);
+            return Mono.fromFuture(load.result(), true)
+                    .timeout(loadTimeout, Mono.error(() -> new DataAccessResourceFailureException(
+                            "Book " + bookId + " was not loaded within " + loadTimeout)));
+        });
+    }
+
+    //    a batch is sent when it is full or when the window since its first id has passed;
+    //    batches wait in a bounded queue while all queries are busy, and past that their loads are refused;
+    //    the fair variant is used because the plain one can start its window timer before the id is buffered
+    //    and then leave a lone id waiting for the next one
+    private void start() {
+        List<FluxSink<PendingLoad>> sink = new ArrayList<>(1);
+        Flux.<PendingLoad>create(sink::add)
+                .bufferTimeout(maxBatchSize, batchWindow, true)
+                .onBackpressureBuffer(maxQueuedBatches, this::reject, BufferOverflowStrategy.DROP_LATEST)
+                .flatMap(this::loadBatch, maxConcurrentBatches)
+                .subscribe(null, this::restart);
+        this.pending = sink.get(0);
+    }
+
+    //    should the pipeline still die, the loads it held are failed and later loads go to a new one
+    private void restart(Throwable error) {
+        if (closed) {
+            return;
+        }
+        List<PendingLoad> lost = List.copyOf(inFlight);
+        start();
+        lost.forEach(load -> load.result().completeExceptionally(error));
+    }
+
+    private void reject(List<PendingLoad> batch) {
+        DataAccessResourceFailureException error = new DataAccessResourceFailureException(
+                "Book loader queue is full (" + maxQueuedBatches + " batches)");
+        batch.forEach(load -> load.result().completeExceptionally(error));
+    }
+
+    //    never fails, so one broken batch does not stop the pipeline; its callers get the error instead
+    private Mono<Void> loadBatch(List<PendingLoad> batch) {
+        Map<Integer, List<CompletableFuture<Book>>> waiting = new HashMap<>();
+        batch.forEach(load -> waiting.computeIfAbsent(load.bookId(), id -> new ArrayList<>()).add(load.result()));
+        batchSizes.record(waiting.size());
+
+        //    deferred so a repository that throws or returns null fails this batch, not the pipeline
+        return Flux.defer(() -> bookRepository.findAllByIds(List.copyOf(waiting.keySet())))
+                .doOnNext(book -> {
+                    List<CompletableFuture<Book>> results = waiting.remove(book.getBookId());
+                    if (results != null) {
+                        results.forEach(result -> result.complete(book));
+                    }
+                })
+                .then()
+                .doOnSuccess(done -> waiting.values().forEach(results -> results.forEach(result -> result.complete(null))))
+                .onErrorResume(error -> {
+                    waiting.values().forEach(results -> results.forEach(result -> result.completeExceptionally(error)));
+                    return Mono.empty();
+                });
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        pending.complete();
+    }
+
+    private record PendingLoad(int bookId, CompletableFuture<Book> result) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.reactive.ReactiveProject.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.reactive.ReactiveProject.entities.Book;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// read-through cache of books by id, bounded by size and time since last write
+@Component
+public class BookCache {
+
+    private final AsyncCache<Integer, Book> cache;
+
+    //    false while this node may be missing invalidations from other nodes; reads then go to the loader
+    private volatile boolean coherent = true;
+
+    public BookCache(@Value("${books.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${books.cache.ttl:10m}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "books");
+        Gauge.builder("books.cache.coherent", this, bookCache -> bookCache.coherent ? 1 : 0)
+                .description("Whether the cache is receiving invalidations from other nodes")
+                .register(meterRegistry);
+    }
+
+    //    an empty loader result is not cached, so missing ids always go to the loader
+    public Mono<Book> get(int bookId, Function<Integer, Mono<Book>> loader) {
+        if (!coherent) {
+            return loader.apply(bookId);
+        }
+        return Mono.fromFuture(() -> cache.get(bookId, (id, executor) -> loader.apply(id).toFuture()), true);
+    }
+
+    //    the cached book if its load has finished; never loads and never waits
+    public Book getIfPresent(int bookId) {
+        if (!coherent) {
+            return null;
+        }
+        CompletableFuture<Book> book = cache.getIfPresent(bookId);
+        return book != null && book.isDone() && !book.isCompletedExceptionally() ? book.getNow(null) : null;
+    }
+
+    //    replaces the entry, including a load that is still in flight, unless it already holds a newer version;
+    //    concurrent writes of one book can get here out of commit order
+    public void put(Book book) {
+        cache.asMap().compute(book.getBookId(), (bookId, existing) -> {
+            Book cached = existing != null && existing.isDone() && !existing.isCompletedExceptionally()
+                    ? existing.getNow(null) : null;
+            return cached != null && isNewer(cached, book) ? existing : CompletableFuture.completedFuture(book);
+        });
+    }
+
+    private static boolean isNewer(Book cached, Book book) {
+        return cached.getVersion() != null && book.getVersion() != null && cached.getVersion() > book.getVersion();
+    }
+
+    public void invalidate(int bookId) {
+        cache.synchronous().invalidate(bookId);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public void setCoherent(boolean coherent) {
+        this.coherent = coherent;
+    }
+
+    public boolean isCoherent() {
+        return coherent;
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+}
@@ -0,0 +1,185 @@
+package com.reactive.ReactiveProject.cache;
+
+import com.reactive.ReactiveProject.changes.BookChangeFeed;
+import com.reactive.ReactiveProject.changes.BookChangeListener;
+import com.reactive.ReactiveProject.dto.BookChange;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import com.reactive.ReactiveProject.search.BookSearchEngine;
+import com.reactive.ReactiveProject.snapshot.BookSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// applies writes made on any node to this node's cache and search index, through the change feed.
+// Staleness is bounded by notification delivery while LISTEN is up; a lost connection is noticed within
+// books.changes.heartbeat, and from then until LISTEN is back the cache is bypassed.
+@Component
+@ConditionalOnProperty(name = "books.changes.enabled", havingValue = "true", matchIfMissing = true)
+public class BookCacheCoherence {
+
+    private static final Logger log = LoggerFactory.getLogger(BookCacheCoherence.class);
+
+    private final BookCache bookCache;
+
+    @Autowired
+    private BookChangeListener changeListener;
+
+    @Autowired
+    private BookChangeFeed changeFeed;
+
+    @Autowired
+    private BookSearchEngine searchEngine;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookLoader bookLoader;
+
+    //    present with books.snapshot.enabled=true
+    @Autowired(required = false)
+    private BookSnapshot snapshot;
+
+    @Value("${books.changes.apply-batch-size:256}")
+    private int applyBatchSize;
+
+    @Value("${books.changes.apply-window:10ms}")
+    private Duration applyWindow;
+
+    //    seq of the last change applied, starting at the newest one logged before the search index was scanned
+    private final AtomicLong lastSeq = new AtomicLong();
+
+    private Disposable subscription;
+
+    public BookCacheCoherence(BookCache bookCache) {
+        //    nothing is known about other nodes' writes until LISTEN is active
+        this.bookCache = bookCache;
+        bookCache.setCoherent(false);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = sync()
+                .doOnError(error -> log.warn("Could not read the book change position, retrying", error))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .thenMany(changeListener.listeningStates())
+                .switchMap(listening -> listening ? resume() : suspend())
+                .subscribe();
+    }
+
+    //    the seq is read before the table is scanned, so a change the scan misses is replayed after it; a snapshot
+    //    left behind by an earlier run may need the feed followed from further back
+    private Mono<Void> sync() {
+        return changeFeed.latestSeq()
+                .flatMap(target -> snapshot != null ? snapshot.resume(target) : Mono.just(target))
+                .doOnNext(lastSeq::set)
+                .then(searchEngine.rebuild());
+    }
+
+    private Flux<BookChange> suspend() {
+        bookCache.setCoherent(false);
+        if (snapshot != null) {
+            snapshot.suspend();
+        }
+        log.warn("Book change listener disconnected, bypassing the book cache");
+        return Flux.empty();
+    }
+
+    //    changes missed while disconnected are replayed from book_change_log before the live ones; when they
+    //    are older than the retained log the search index is rebuilt instead. Should the feed fail, the cache is
+    //    bypassed until it is followed again from the last change applied
+    private Flux<BookChange> resume() {
+        return Flux.defer(() -> {
+                    bookLoader.invalidateAll();
+                    bookCache.invalidateAll();
+                    bookCache.setCoherent(true);
+                    Mono<Long> snapshotResumed = snapshot != null
+                            ? changeFeed.latestSeq().flatMap(snapshot::resume) : Mono.empty();
+                    return snapshotResumed.thenMany(Flux.defer(() -> changeFeed.changes(lastSeq.get())));
+                })
+                .onErrorResume(BookCacheCoherence::pruned, error -> {
+                    log.warn("Book changes after seq {} were pruned, rebuilding the search index", lastSeq.get());
+                    return sync().thenMany(Flux.defer(() -> changeFeed.changes(lastSeq.get())));
+                })
+                .bufferTimeout(applyBatchSize, applyWindow, true)
+                .concatMap(batch -> apply(batch).thenMany(Flux.fromIterable(batch)))
+                .doOnNext(change -> lastSeq.set(change.seq()))
+                .doOnError(error -> {
+                    log.warn("Book change feed failed, bypassing the book cache and following it again", error);
+                    bookCache.setCoherent(false);
+                    if (snapshot != null) {
+                        snapshot.suspend();
+                    }
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)));
+    }
+
+    private static boolean pruned(Throwable error) {
+        return error instanceof ResponseStatusException status && status.getStatusCode() == HttpStatus.GONE;
+    }
+
+    //    a bulk write arrives as one batch, and the books it wrote are read back with one query; only the last
+    //    change to each book in the batch matters. The snapshot is brought up to date before the cache drops the
+    //    books, or a read in between would cache the snapshot's old copy
+    private Mono<Void> apply(List<BookChange> batch) {
+        Map<Integer, String> operations = new LinkedHashMap<>();
+        batch.forEach(change -> operations.put(change.bookId(), change.operation()));
+        List<Integer> written = new ArrayList<>();
+        operations.forEach((bookId, operation) -> {
+            if (!"DELETE".equals(operation)) {
+                written.add(bookId);
+            }
+        });
+        boolean read = !written.isEmpty() && (snapshot != null || searchEngine.indexesLocally());
+        return (read ? Flux.defer(() -> bookRepository.findAllByIds(written)) : Flux.<Book>empty())
+                .collectMap(Book::getBookId, book -> book, HashMap::new)
+                .doOnNext(books -> {
+                    if (snapshot != null) {
+                        snapshot.apply(batch, books);
+                    }
+                    operations.keySet().forEach(bookId -> {
+                        bookLoader.invalidate(bookId);
+                        bookCache.invalidate(bookId);
+                    });
+                    if (searchEngine.indexesLocally()) {
+                        operations.forEach((bookId, operation) -> {
+                            Book book = books.get(bookId);
+                            if (book != null) {
+                                searchEngine.index(book);
+                            } else {
+                                searchEngine.remove(bookId);
+                            }
+                        });
+                    }
+                })
+                .then();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.reactive.ReactiveProject.cache;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+// loads single books from the database, one query per id however many callers want it at once
+@Component
+public class BookLoader {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookBatchLoader batchLoader;
+
+    @Value("${books.loader.batching-enabled:true}")
+    private boolean batchingEnabled;
+
+    private final SingleFlight<Integer, Book> singleFlight;
+
+    public BookLoader(MeterRegistry meterRegistry) {
+        this.singleFlight = new SingleFlight<>("books", meterRegistry);
+    }
+
+    //    requests for different ids arriving together are merged into one query by the batch loader
+    public Mono<Book> load(int bookId) {
+        return singleFlight.execute(bookId, batchingEnabled ? batchLoader::load : bookRepository::findById);
+    }
+
+    //    called before the cache entry is dropped, so a miss after a write cannot join a load from before it
+    public void invalidate(int bookId) {
+        singleFlight.forget(bookId);
+    }
+
+    public void invalidateAll() {
+        singleFlight.forgetAll();
+    }
+}
@@ -0,0 +1,68 @@
+package com.reactive.ReactiveProject.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// concurrent callers for the same key share one load; the key is released as soon as the load completes,
+// or earlier by forget() when the value changes, so no caller arriving after a write joins a load from before it
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter loads;
+
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.loads = Counter.builder("books.singleflight.loads")
+                .description("Loads started")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("books.singleflight.coalesced")
+                .description("Calls that joined a load already in flight")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    //    the load runs detached, so one caller cancelling does not cancel it for the others
+    public Mono<V> execute(K key, Function<? super K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            CompletableFuture<V> load = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, load);
+            if (existing != null) {
+                coalesced.increment();
+                return Mono.fromFuture(existing, true);
+            }
+            loads.increment();
+            //    deferred, so a loader that throws still completes and releases the key
+            Mono.defer(() -> loader.apply(key)).toFuture().whenComplete((value, error) -> {
+                inFlight.remove(key, load);
+                if (error != null) {
+                    load.completeExceptionally(error);
+                } else {
+                    load.complete(value);
+                }
+            });
+            return Mono.fromFuture(load, true);
+        });
+    }
+
+    //    callers already waiting keep the load they joined; later ones start a new one
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
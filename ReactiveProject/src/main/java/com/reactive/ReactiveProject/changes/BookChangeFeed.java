@@ -0,0 +1,180 @@
+package com.reactive.ReactiveProject.changes;
+
+import com.reactive.ReactiveProject.dto.BookChange;
+import io.r2dbc.spi.Row;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+// live book changes, optionally preceded by the ones a reconnecting client missed. Changes are read from
+// book_change_log in (txid, seq) order and only from transactions older than every one still running, so a change
+// can never commit behind one already handed out. Notifications, and a poll for the ones missed, say when to read.
+@Service
+@ConditionalOnProperty(name = "books.changes.enabled", havingValue = "true", matchIfMissing = true)
+public class BookChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(BookChangeFeed.class);
+
+    //    a transaction older than the snapshot's xmin has committed or rolled back, and so has logged all it will
+    private static final String SETTLED = "txid < pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+    @Autowired
+    private BookChangeListener changeListener;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${books.changes.client-buffer-size:4096}")
+    private int clientBufferSize;
+
+    @Value("${books.changes.poll-interval:1s}")
+    private Duration pollInterval;
+
+    private final Sinks.Many<Logged> changes = Sinks.many().multicast().directBestEffort();
+
+    //    position of the last change read by the poller
+    private final AtomicReference<Position> head = new AtomicReference<>();
+
+    //    completes once the poller has a head; from then on its changes follow any replay without a gap
+    private final Sinks.Empty<Void> started = Sinks.empty();
+
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = Flux.<Object>merge(changeListener.notifications(), Flux.interval(Duration.ZERO, pollInterval))
+                .onBackpressureLatest()
+                .concatMap(tick -> poll(), 1)
+                .doOnError(error -> log.warn("Could not read book_change_log, retrying", error))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(changes::tryEmitNext);
+    }
+
+    private Flux<Logged> poll() {
+        Position from = head.get();
+        if (from == null) {
+            return latest()
+                    .doOnNext(position -> {
+                        head.set(position);
+                        started.tryEmitEmpty();
+                    })
+                    .thenMany(Flux.empty());
+        }
+        return after(from).doOnNext(logged -> head.set(logged.position()));
+    }
+
+    //    since == null: only new changes; otherwise every change after the one with that seq, then live ones.
+    //    A seq no longer in the retained log fails with 410 Gone: the client has to reload and follow from now
+    public Flux<BookChange> changes(Long since) {
+        if (since == null) {
+            return changes.asFlux().map(Logged::change).onBackpressureBuffer(clientBufferSize);
+        }
+        return position(since)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.GONE, "Change " + since
+                        + " is no longer retained; reload and follow the changes from now on")))
+                .flatMapMany(this::resume);
+    }
+
+    private Flux<BookChange> resume(Position from) {
+        return started.asMono().thenMany(Flux.defer(() -> {
+            //    live changes are buffered from before the replay query, so nothing falls between the two
+            Sinks.Many<Logged> live = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<Logged>get(clientBufferSize).get());
+            Disposable subscription = changes.asFlux().subscribe(logged -> {
+                if (live.tryEmitNext(logged).isFailure()) {
+                    live.tryEmitError(new IllegalStateException("Client fell too far behind the change feed"));
+                }
+            });
+            //    the replay and the poller read in the same order, so a live change at or before the replayed
+            //    position is a duplicate
+            AtomicReference<Position> position = new AtomicReference<>(from);
+            return Flux.concat(
+                            after(from).doOnNext(logged -> position.set(logged.position())),
+                            live.asFlux().filter(logged -> logged.position().compareTo(position.get()) > 0))
+                    .map(Logged::change)
+                    .doFinally(signal -> subscription.dispose());
+        }));
+    }
+
+    //    seq of the newest change that can be handed out, or of the last one pruned; 0 when there is neither.
+    //    changes(latestSeq()) follows on from it
+    public Mono<Long> latestSeq() {
+        return latest().map(Position::seq);
+    }
+
+    //    whether changes(seq) can replay what came after seq
+    public Mono<Boolean> retains(long seq) {
+        return position(seq).hasElement();
+    }
+
+    private Mono<Position> latest() {
+        return databaseClient.sql("select txid, seq from (select txid, seq from book_change_log where " + SETTLED
+                        + " union all select txid, seq from book_change_log_pruned) positions"
+                        + " order by txid desc, seq desc limit 1")
+                .map((row, metadata) -> positionOf(row))
+                .one();
+    }
+
+    //    the pruned row stands in for the changes BookChangeLogRetention removed, so its seq can still be resumed from
+    private Mono<Position> position(long seq) {
+        return databaseClient.sql("select txid, seq from book_change_log where seq = :seq"
+                        + " union all select txid, seq from book_change_log_pruned where seq = :seq")
+                .bind("seq", seq)
+                .map((row, metadata) -> positionOf(row))
+                .all()
+                .next();
+    }
+
+    private Flux<Logged> after(Position from) {
+        return databaseClient.sql("select txid, seq, book_id, operation from book_change_log"
+                        + " where (txid, seq) > (:txid, :seq) and " + SETTLED + " order by txid, seq")
+                .bind("txid", from.txid())
+                .bind("seq", from.seq())
+                .map((row, metadata) -> new Logged(positionOf(row), new BookChange(
+                        row.get("seq", Long.class), row.get("book_id", Integer.class), row.get("operation", String.class))))
+                .all();
+    }
+
+    private static Position positionOf(Row row) {
+        return new Position(row.get("txid", Long.class), row.get("seq", Long.class));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        changes.tryEmitComplete();
+    }
+
+    //    where a change sits in the order the feed hands changes out
+    private record Position(long txid, long seq) implements Comparable<Position> {
+
+        @Override
+        public int compareTo(Position other) {
+            int byTxid = Long.compare(txid, other.txid);
+            return byTxid != 0 ? byTxid : Long.compare(seq, other.seq);
+        }
+    }
+
+    private record Logged(Position position, BookChange change) {
+    }
+}
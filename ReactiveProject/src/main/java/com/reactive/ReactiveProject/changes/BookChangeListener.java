@@ -0,0 +1,118 @@
+package com.reactive.ReactiveProject.changes;
+
+import com.reactive.ReactiveProject.config.R2dbcPoolConfig;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// LISTENs on book_changes over its own connection, outside the pool, and fans the notifications out. They only
+// say that book_change_log has grown; BookChangeFeed reads what changed from the log
+@Component
+@ConditionalOnProperty(name = "books.changes.enabled", havingValue = "true", matchIfMissing = true)
+public class BookChangeListener {
+
+    public static final String CHANNEL = "book_changes";
+
+    private static final Logger log = LoggerFactory.getLogger(BookChangeListener.class);
+
+    private final Sinks.Many<String> notifications = Sinks.many().multicast().directBestEffort();
+
+    private final AtomicBoolean listening = new AtomicBoolean();
+
+    //    replays the latest listening state to new subscribers
+    private final Sinks.Many<Boolean> listeningStates = Sinks.many().replay().latest();
+
+    @Autowired
+    private R2dbcProperties properties;
+
+    @Value("${books.changes.heartbeat:5s}")
+    private Duration heartbeat;
+
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = Flux.usingWhen(
+                        Mono.from(R2dbcPoolConfig.unpooledConnectionFactory(properties).create())
+                                .cast(PostgresqlConnection.class),
+                        this::listen,
+                        PostgresqlConnection::close)
+                .doOnError(error -> {
+                    setListening(false);
+                    log.warn("Lost the {} listener connection, reconnecting", CHANNEL, error);
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(notifications::tryEmitNext);
+    }
+
+    //    notifications sent while no connection is listening are lost; BookChangeFeed also polls the log
+    private Flux<String> listen(PostgresqlConnection connection) {
+        return connection.createStatement("LISTEN " + CHANNEL).execute()
+                .flatMap(PostgresqlResult::getRowsUpdated)
+                .doOnComplete(() -> {
+                    setListening(true);
+                    log.info("Listening for book changes");
+                })
+                .thenMany(Flux.merge(
+                        connection.getNotifications().map(Notification::getName),
+                        heartbeat(connection)))
+                .concatWith(Mono.error(new IllegalStateException("Notification stream ended")));
+    }
+
+    //    a connection that died without closing would otherwise look like a quiet channel forever
+    private Flux<String> heartbeat(PostgresqlConnection connection) {
+        return Flux.interval(heartbeat)
+                .concatMap(tick -> connection.createStatement("SELECT 1").execute()
+                        .flatMap(PostgresqlResult::getRowsUpdated)
+                        .then()
+                        .timeout(heartbeat))
+                .thenMany(Flux.empty());
+    }
+
+    //    hot: emits the channel name for each notification that arrives after subscribing
+    public Flux<String> notifications() {
+        return notifications.asFlux();
+    }
+
+    public boolean isListening() {
+        return listening.get();
+    }
+
+    //    emits false when the connection is lost and true once LISTEN is active again
+    public Flux<Boolean> listeningStates() {
+        return listeningStates.asFlux().distinctUntilChanged();
+    }
+
+    private void setListening(boolean value) {
+        listening.set(value);
+        listeningStates.tryEmitNext(value);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        setListening(false);
+        listeningStates.tryEmitComplete();
+        notifications.tryEmitComplete();
+    }
+}
@@ -0,0 +1,78 @@
+package com.reactive.ReactiveProject.changes;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// keeps book_change_log to books.changes.retention; every node prunes, and a prune that finds nothing is a no-op
+@Component
+@ConditionalOnProperty(name = "books.changes.enabled", havingValue = "true", matchIfMissing = true)
+public class BookChangeLogRetention {
+
+    private static final Logger log = LoggerFactory.getLogger(BookChangeLogRetention.class);
+
+    //    cuts the log at the last settled change older than the retention, in the order BookChangeFeed reads it,
+    //    so what remains is every change after a position the feed has handed out
+    private static final String PRUNE =
+            "with horizon as (select txid, seq from book_change_log"
+                    + " where changed_at < now() - make_interval(secs => :retentionSeconds)"
+                    + " and txid < pg_snapshot_xmin(pg_current_snapshot())::text::bigint"
+                    + " order by txid desc, seq desc limit 1),"
+                    + " recorded as (update book_change_log_pruned pruned set txid = horizon.txid, seq = horizon.seq"
+                    + " from horizon where (horizon.txid, horizon.seq) > (pruned.txid, pruned.seq))"
+                    + " delete from book_change_log where (txid, seq) <= (select txid, seq from horizon)";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${books.changes.retention:7d}")
+    private Duration retention;
+
+    @Value("${books.changes.prune-interval:1h}")
+    private Duration pruneInterval;
+
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = Flux.interval(Duration.ZERO, pruneInterval)
+                .concatMap(tick -> prune()
+                        .onErrorResume(error -> {
+                            log.warn("Could not prune book_change_log", error);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    //    number of changes removed
+    public Mono<Long> prune() {
+        return databaseClient.sql(PRUNE)
+                .bind("retentionSeconds", (double) retention.toSeconds())
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(pruned -> {
+                    if (pruned > 0) {
+                        log.info("Pruned {} book changes older than {}", pruned, retention);
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.reactive.ReactiveProject.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookValue;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.codec.json.Jackson2CodecSupport;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+// Writes a single Book (or BookValue) as JSON from cached UTF-8 bytes. The bytes are keyed by the book's
+// full value, so an unchanged book is never re-encoded and a changed one can never be served stale; the
+// response buffer wraps the cached array without copying it. Streams of books go to Jackson as before,
+// so paging and export routes do not churn the cache.
+public class CachedBookJsonEncoder implements HttpMessageEncoder<Object> {
+
+    private static final List<MimeType> MIME_TYPES = List.of(
+            MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+
+    private final ObjectMapper objectMapper;
+
+    private final Jackson2JsonEncoder streamEncoder;
+
+    private final Cache<BookValue, byte[]> encoded;
+
+    public CachedBookJsonEncoder(ObjectMapper objectMapper, long maximumBytes) {
+        this.objectMapper = objectMapper;
+        this.streamEncoder = new Jackson2JsonEncoder(objectMapper);
+        this.encoded = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((BookValue book, byte[] bytes) -> bytes.length)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        Class<?> type = elementType.toClass();
+        return (type == Book.class || type == BookValue.class)
+                && (mimeType == null || MIME_TYPES.stream().anyMatch(supported -> supported.isCompatibleWith(mimeType)));
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono<?> single) {
+            //    a Mono body, e.g. GET /books/{bid}
+            return single.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+        return streamEncoder.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        if (hints != null && hints.containsKey(Jackson2CodecSupport.JSON_VIEW_HINT)) {
+            return streamEncoder.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+        }
+        return bufferFactory.wrap(bytes(value));
+    }
+
+    public byte[] bytes(Object value) {
+        BookValue book = value instanceof Book entity ? BookValue.of(entity) : (BookValue) value;
+        return encoded.get(book, key -> serialize(value));
+    }
+
+    public CacheStats stats() {
+        return encoded.stats();
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new EncodingException("Could not write " + value.getClass().getSimpleName() + " as JSON", e);
+        }
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return List.of();
+    }
+}
@@ -0,0 +1,42 @@
+package com.reactive.ReactiveProject.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.ReactiveProject.codec.CachedBookJsonEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+// registers CachedBookJsonEncoder ahead of the default Jackson encoder when books.json-cache.enabled
+@Configuration(proxyBeanMethods = false)
+public class BookCodecConfig implements WebFluxConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${books.json-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${books.json-cache.max-bytes:32MB}")
+    private DataSize maximumBytes;
+
+    public BookCodecConfig(ObjectMapper objectMapper, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        if (!enabled) {
+            return;
+        }
+        CachedBookJsonEncoder encoder = new CachedBookJsonEncoder(objectMapper, maximumBytes.toBytes());
+        meterRegistry.ifAvailable(registry -> registry.gauge("books.json-cache.hit.ratio", encoder,
+                cached -> cached.stats().hitRate()));
+        configurer.customCodecs().registerWithDefaultConfig(encoder);
+    }
+}
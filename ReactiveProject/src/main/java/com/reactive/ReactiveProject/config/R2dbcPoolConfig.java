@@ -0,0 +1,55 @@
+package com.reactive.ReactiveProject.config;
+
+import com.reactive.ReactiveProject.metrics.SlowQueryLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.StringUtils;
+
+// pooled connection factory built from spring.r2dbc.* and spring.r2dbc.pool.*; the inmemory profile has no database
+@Configuration(proxyBeanMethods = false)
+@Profile("!inmemory")
+public class R2dbcPoolConfig {
+
+    @Bean
+    public TimedConnectionFactory connectionFactory(R2dbcProperties properties, MeterRegistry meterRegistry,
+                                                    SlowQueryLog slowQueryLog) {
+        R2dbcProperties.Pool pool = properties.getPool();
+        //    connections are proxied before they are pooled, so every statement passes the slow-query listener
+        ConnectionFactory connections = ProxyConnectionFactory.builder(unpooledConnectionFactory(properties))
+                .listener(slowQueryLog)
+                .build();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration
+                .builder(connections)
+                .name("books")
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .validationDepth(pool.getValidationDepth());
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(pool.getMaxIdleTime()).to(configuration::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(configuration::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(configuration::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(configuration::maxCreateConnectionTime);
+        map.from(pool.getValidationQuery()).when(StringUtils::hasText).to(configuration::validationQuery);
+        return new TimedConnectionFactory(new ConnectionPool(configuration.build()), meterRegistry);
+    }
+
+    //    a plain connection factory for the configured url, for connections that must not come from the pool
+    public static ConnectionFactory unpooledConnectionFactory(R2dbcProperties properties) {
+        return ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .configure(options -> properties.getProperties()
+                        .forEach((key, value) -> options.option(Option.valueOf(key), value)))
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.reactive.ReactiveProject.config;
+
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.WebsocketRouteTransport;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyRouteProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import reactor.netty.http.server.WebsocketServerSpec;
+
+// Boot runs the TCP server on spring.rsocket.server.port and would only mount WebSocket instead of it; this
+// adds the same responder as a WebSocket route on the HTTP port, for callers that can only reach that one
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "books.rsocket.websocket-path")
+public class RSocketWebSocketConfig {
+
+    @Bean
+    public NettyRouteProvider rsocketWebSocketRoute(@Value("${books.rsocket.websocket-path}") String path,
+                                                    RSocketMessageHandler messageHandler,
+                                                    ObjectProvider<RSocketServerCustomizer> customizers) {
+        return routes -> {
+            RSocketServer server = RSocketServer.create(messageHandler.responder());
+            customizers.orderedStream().forEach(customizer -> customizer.customize(server));
+            return routes.ws(path, WebsocketRouteTransport.newHandler(server.asConnectionAcceptor()),
+                    WebsocketServerSpec.builder().build());
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.reactive.ReactiveProject.controller;
+
+import com.reactive.ReactiveProject.changes.BookChangeFeed;
+import com.reactive.ReactiveProject.dto.BookChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/books/changes")
+@ConditionalOnProperty(name = "books.changes.enabled", havingValue = "true", matchIfMissing = true)
+public class BookChangeController {
+
+    @Autowired
+    private BookChangeFeed changeFeed;
+
+    @Value("${books.changes.keepalive:15s}")
+    private Duration keepalive;
+
+    //    each event id is the change seq; a reconnecting EventSource resumes after it through Last-Event-ID
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BookChange>> changes(@RequestParam(required = false) Long since,
+                                                     @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Flux<ServerSentEvent<BookChange>> changes = changeFeed.changes(lastEventId != null ? lastEventId : since)
+                .map(change -> ServerSentEvent.builder(change)
+                        .id(Long.toString(change.seq()))
+                        .event(change.operation())
+                        .build());
+        //    comment lines keep idle connections open through proxies
+        Flux<ServerSentEvent<BookChange>> heartbeats = Flux.interval(keepalive)
+                .map(tick -> ServerSentEvent.<BookChange>builder().comment("keepalive").build());
+        return Flux.merge(changes, heartbeats);
+    }
+}
@@ -1,16 +1,29 @@
 package com.reactive.ReactiveProject.controller;
+import com.reactive.ReactiveProject.dto.BatchChunkResult;
+import com.reactive.ReactiveProject.dto.BookLookupResult;
+import com.reactive.ReactiveProject.dto.BulkDeleteResult;
 import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
 import com.reactive.ReactiveProject.services.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/books")
 public class   BookController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private BookService bookService;
 
@@ -20,42 +33,138 @@ public class   BookController {
         return bookService.create(book);
     }
 
-    //    get all books
+    //    bulk create from a JSON array or an NDJSON stream, inserted in chunks
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BatchChunkResult> createAll(@RequestBody Flux<Book> books) {
+        return bookService.createAll(books);
+    }
+
+    //    get all books, one keyset page at a time; ?fields= narrows the columns read and written
     @GetMapping
-    public Flux<Book> getAll() {
-        return bookService.getAll();
+    public Mono<ResponseEntity<List<Book>>> getAll(@RequestParam(required = false) String after,
+                                                   @RequestParam(defaultValue = "0") int limit,
+                                                   @RequestParam(required = false) String fields,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int afterId = BookCursor.decode(after);
+        Set<BookField> selected = BookFields.parse(fields);
+        Mono<ResponseEntity<List<Book>>> page = Mono.defer(() -> bookService.getPage(afterId, limit, selected))
+                .map(found -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(BookETags.of(found, selected));
+                    if (found.hasMore()) {
+                        response.header(NEXT_CURSOR_HEADER, BookCursor.encode(found.lastBookId()));
+                    }
+                    return response.body(found.books());
+                });
+        if (ifNoneMatch == null) {
+            return page;
+        }
+        //    revalidated from the ids and versions of the same page; the full rows are read only when it changed
+        return bookService.getPage(afterId, limit, BookField.VERSIONS)
+                .map(versions -> BookETags.of(versions, selected))
+                .filter(etag -> BookETags.matches(ifNoneMatch, etag))
+                .map(etag -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<List<Book>>build())
+                .switchIfEmpty(page);
+    }
+
+    //    get many books by id with one query, in request order
+    @GetMapping(params = "ids")
+    public Flux<BookLookupResult> getAll(@RequestParam List<Integer> ids) {
+        return bookService.getAll(ids);
+    }
+
+    //    same as GET /books?ids= for id lists too long for a query string
+    @PostMapping(value = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<BookLookupResult> lookup(@RequestBody List<Integer> ids) {
+        return bookService.getAll(ids);
     }
 
-    //    get single book
+    //    stream all books as newline-delimited JSON
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Book> streamAll(@RequestParam(required = false) String after,
+                                @RequestParam(defaultValue = "0") int limit,
+                                @RequestParam(required = false) String fields) {
+        return bookService.stream(BookCursor.decode(after), limit, BookFields.parse(fields));
+    }
+
+    //    stream all books as server-sent events; each event id is the cursor to resume after it
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Book>> streamAllEvents(@RequestParam(required = false) String after,
+                                                       @RequestParam(defaultValue = "0") int limit,
+                                                       @RequestParam(required = false) String fields,
+                                                       @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        int afterId = BookCursor.decode(lastEventId != null ? lastEventId : after);
+        return bookService.stream(afterId, limit, BookFields.parse(fields))
+                .map(book -> ServerSentEvent.builder(book)
+                        .id(BookCursor.encode(book.getBookId()))
+                        .build());
+    }
+
+    //    get single book; If-None-Match is checked against the version alone
     @GetMapping("/{bid}")
-    public Mono<Book> get(@PathVariable("bid") int bookId) {
-        return bookService.get(bookId);
+    public Mono<ResponseEntity<Book>> get(@PathVariable("bid") int bookId,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Mono<ResponseEntity<Book>> book = Mono.defer(() -> bookService.get(bookId))
+                .map(found -> ResponseEntity.ok().eTag(BookETags.of(found)).body(found));
+        if (ifNoneMatch == null) {
+            return book;
+        }
+        return bookService.getVersion(bookId)
+                .map(BookETags::of)
+                .filter(etag -> BookETags.matches(ifNoneMatch, etag))
+                .map(etag -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<Book>build())
+                .switchIfEmpty(book);
     }
 
-    //    update
+    //    update; with If-Match only while the book is still at that version, 412 otherwise
     @PutMapping("/{bookId}")
-    public Mono<Book> update(@RequestBody Book book, @PathVariable int bookId) {
-        return bookService.update(book, bookId);
+    public Mono<ResponseEntity<Book>> update(@RequestBody Book book, @PathVariable int bookId,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Integer version = BookETags.version(ifMatch);
+        return (version == null ? bookService.update(book, bookId) : bookService.update(book, bookId, version))
+                .map(updatedBook -> ResponseEntity.ok().eTag(BookETags.of(updatedBook)).body(updatedBook));
     }
 
     //    delete
     @DeleteMapping("/{bookId}")
-    public Mono<Void> delete(@PathVariable int bookId) {
-        return bookService.delete(bookId);
+    public Mono<ResponseEntity<Void>> delete(@PathVariable int bookId) {
+        return bookService.delete(bookId)
+                .map(found -> found
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
     }
 
-    @GetMapping("/author/{author}")
-    public Flux<Book> findByAuthor(@PathVariable String author) {
-        return bookService.findByAuthor(author);
+    //    delete many books in one statement
+    @DeleteMapping
+    public Mono<BulkDeleteResult> deleteAll(@RequestParam List<Integer> ids) {
+        return bookService.deleteAll(ids);
+    }
+
+    @GetMapping(value = "/author/{author}", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Book> findByAuthor(@PathVariable String author,
+                                   @RequestParam(defaultValue = "false") boolean ignoreCase,
+                                   @RequestParam(required = false) String fields) {
+        return bookService.findByAuthor(author, ignoreCase, BookFields.parse(fields));
+    }
+    @GetMapping(value = "/search", params = "q")
+    public Flux<Book> search(@RequestParam("q") String query,
+                             @RequestParam(defaultValue = "0") int page,
+                             @RequestParam(defaultValue = "0") int size,
+                             @RequestParam(required = false) String fields) {
+        return bookService.search(query, page, size, BookFields.parse(fields));
     }
-    @GetMapping("/search")
-    public Flux<Book> findByNameAndAuthor(@RequestParam String name, @RequestParam String author) {
-        return bookService.findByNameAndAuthor(name, author);
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Book> findByNameAndAuthor(@RequestParam String name, @RequestParam String author,
+                                          @RequestParam(required = false) String fields) {
+        return bookService.findByNameAndAuthor(name, author, BookFields.parse(fields));
     }
     @PatchMapping("/{bookId}")
-    public Mono<ResponseEntity<Book>> partialUpdate(@RequestBody Book book, @PathVariable int bookId) {
-        return bookService.partialUpdate(book, bookId)
-                .map(updatedBook -> ResponseEntity.ok(updatedBook))
+    public Mono<ResponseEntity<Book>> partialUpdate(@RequestBody Book book, @PathVariable int bookId,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Integer version = BookETags.version(ifMatch);
+        return (version == null ? bookService.partialUpdate(book, bookId) : bookService.partialUpdate(book, bookId, version))
+                .map(updatedBook -> ResponseEntity.ok().eTag(BookETags.of(updatedBook)).body(updatedBook))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
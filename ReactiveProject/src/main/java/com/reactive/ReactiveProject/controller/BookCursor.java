@@ -0,0 +1,37 @@
+package com.reactive.ReactiveProject.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// opaque paging cursor; clients only ever echo it back
+public final class BookCursor {
+
+    private static final String PREFIX = "b:";
+
+    private BookCursor() {
+    }
+
+    public static String encode(int lastBookId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastBookId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    //    no cursor means the first page
+    public static int decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(PREFIX)) {
+                return Integer.parseInt(value.substring(PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            //    covers NumberFormatException too
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+}
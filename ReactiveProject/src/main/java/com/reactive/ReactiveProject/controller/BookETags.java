@@ -0,0 +1,94 @@
+package com.reactive.ReactiveProject.controller;
+
+import com.reactive.ReactiveProject.dto.BookPage;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Set;
+
+// Strong ETags built from book versions. A single book's tag is its version; a page's tag digests the ids and
+// versions on it, so both can be revalidated from book_id and version alone.
+public final class BookETags {
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private BookETags() {
+    }
+
+    public static String of(int version) {
+        return "\"" + version + "\"";
+    }
+
+    //    null when the version was not loaded
+    public static String of(Book book) {
+        return book.getVersion() == null ? null : of(book.getVersion());
+    }
+
+    //    the selected fields and whether a next page follows shape the response too, so they are part of the tag
+    public static String of(BookPage page, Set<BookField> fields) {
+        ByteBuffer content = ByteBuffer.allocate(Integer.BYTES * (2 + 2 * page.books().size()));
+        content.putInt(page.hasMore() ? 1 : 0);
+        int selected = 0;
+        for (BookField field : fields == null ? BookField.ALL : fields) {
+            selected |= 1 << field.ordinal();
+        }
+        content.putInt(selected);
+        for (Book book : page.books()) {
+            content.putInt(book.getBookId());
+            content.putInt(book.getVersion() == null ? -1 : book.getVersion());
+        }
+        byte[] digest = sha256().digest(content.array());
+        return "\"p" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 18)) + "\"";
+    }
+
+    //    If-None-Match uses the weak comparison, so W/"3" still matches "3"
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals(ANY) || strip(candidate).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //    the version If-Match requires: null when there is no header or it is *, -1 when it names no single
+    //    version of a book (a weak or foreign tag, or several tags), which only an absent book escapes
+    public static Integer version(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals(ANY)) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.contains(",") || tag.startsWith(WEAK_PREFIX) || tag.length() < 3
+                || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String strip(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.reactive.ReactiveProject.controller;
+
+import com.reactive.ReactiveProject.entities.BookField;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// parses ?fields=name,author; bookId and version are always selected because cursors and event ids are built
+// from the id and ETags from the version
+public final class BookFields {
+
+    private BookFields() {
+    }
+
+    //    null when the parameter is absent, meaning the whole book
+    public static Set<BookField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<BookField> selected = EnumSet.of(BookField.BOOK_ID, BookField.VERSION);
+        for (String property : fields.split(",")) {
+            String name = property.trim();
+            selected.add(BookField.forProperty(name)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + name)));
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,90 @@
+package com.reactive.ReactiveProject.controller;
+
+import com.reactive.ReactiveProject.dto.BookStreamRequest;
+import com.reactive.ReactiveProject.dto.BookUpsertResult;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.services.BookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// BookService over RSocket, on the TCP server and the WebSocket route alike. Payloads are CBOR unless the
+// requester's SETUP frame asks for JSON.
+@Controller
+public class BookRSocketController {
+
+    @Autowired
+    private BookService bookService;
+
+    @Value("${books.rsocket.upsert-concurrency:16}")
+    private int upsertConcurrency;
+
+    //    request-response
+    @MessageMapping("books.get")
+    public Mono<Book> get(int bookId) {
+        return bookService.get(bookId);
+    }
+
+    //    request-stream; rows leave the database cursor only as the requester's requestN allows
+    @MessageMapping("books.all")
+    public Flux<Book> getAll(@Payload(required = false) BookStreamRequest request) {
+        return request == null
+                ? bookService.stream(0, 0, null)
+                : bookService.stream(request.afterId(), request.limit(), null);
+    }
+
+    //    request-stream
+    @MessageMapping("books.author")
+    public Flux<Book> findByAuthor(String author) {
+        return bookService.findByAuthor(author);
+    }
+
+    //    request-channel: a book with bookId 0 is created, any other is updated, only at its version when it
+    //    carries one. Results come back in input order, and with upsert-concurrency writes in flight the
+    //    inbound stream is requested no faster than it is written. Writes of one book id run in input order.
+    @MessageMapping("books.upsert")
+    public Flux<BookUpsertResult> upsert(Flux<Book> books) {
+        return Flux.defer(() -> {
+            //    the latest write of each book id this channel still has in flight
+            Map<Integer, Mono<BookUpsertResult>> writing = new ConcurrentHashMap<>();
+            return books.index()
+                    .flatMapSequential(book -> afterEarlierWrites(writing, book.getT2().getBookId(),
+                            upsert(book.getT1().intValue(), book.getT2())), upsertConcurrency);
+        });
+    }
+
+    //    called in input order, so each write of an id is chained behind the one before it
+    private static Mono<BookUpsertResult> afterEarlierWrites(Map<Integer, Mono<BookUpsertResult>> writing,
+                                                             int bookId, Mono<BookUpsertResult> write) {
+        if (bookId == 0) {
+            return write;
+        }
+        Mono<BookUpsertResult> earlier = writing.get(bookId);
+        Mono<BookUpsertResult> ordered = (earlier == null ? write : earlier.then(write)).cache();
+        writing.put(bookId, ordered);
+        return ordered.doFinally(signal -> writing.remove(bookId, ordered));
+    }
+
+    private Mono<BookUpsertResult> upsert(int index, Book book) {
+        int bookId = book.getBookId();
+        Mono<Book> written = Mono.defer(() -> bookId == 0
+                ? bookService.create(book)
+                : book.getVersion() == null
+                ? bookService.update(book, bookId)
+                : bookService.update(book, bookId, book.getVersion()));
+        //    one failed book does not end the channel
+        return written
+                .map(saved -> BookUpsertResult.written(index, saved))
+                .defaultIfEmpty(BookUpsertResult.failed(index, bookId, "Book " + bookId + " does not exist"))
+                .onErrorResume(error -> Mono.just(BookUpsertResult.failed(index, bookId,
+                        error instanceof ResponseStatusException status ? status.getReason() : error.getMessage())));
+    }
+}
@@ -0,0 +1,26 @@
+package com.reactive.ReactiveProject.controller;
+
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// a saturated pool fails the request after spring.r2dbc.pool.max-acquire-time instead of queueing it
+@RestControllerAdvice
+public class DatabaseExceptionHandler {
+
+    @ExceptionHandler({DataAccessResourceFailureException.class, CannotCreateTransactionException.class,
+            R2dbcTimeoutException.class})
+    public ResponseEntity<ProblemDetail> databaseUnavailable(Exception e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                "No database connection available");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problem);
+    }
+}
@@ -0,0 +1,15 @@
+package com.reactive.ReactiveProject.dto;
+
+import java.util.List;
+
+// outcome of one chunk of POST /books/batch; offset is the position of its first book in the request
+public record BatchChunkResult(int chunk, int offset, int size, List<Integer> bookIds, String error) {
+
+    public static BatchChunkResult inserted(int chunk, int offset, List<Integer> bookIds) {
+        return new BatchChunkResult(chunk, offset, bookIds.size(), bookIds, null);
+    }
+
+    public static BatchChunkResult failed(int chunk, int offset, int size, String error) {
+        return new BatchChunkResult(chunk, offset, size, List.of(), error);
+    }
+}
@@ -0,0 +1,6 @@
+package com.reactive.ReactiveProject.dto;
+
+// one committed write to book_details; seq identifies it in book_change_log. Changes are handed out in commit
+// order, which seqs need not follow
+public record BookChange(long seq, int bookId, String operation) {
+}
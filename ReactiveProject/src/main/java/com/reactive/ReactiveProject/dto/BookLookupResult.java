@@ -0,0 +1,15 @@
+package com.reactive.ReactiveProject.dto;
+
+import com.reactive.ReactiveProject.entities.Book;
+
+// one entry of a multi-get response; book is null when found is false
+public record BookLookupResult(int bookId, boolean found, Book book) {
+
+    public static BookLookupResult found(Book book) {
+        return new BookLookupResult(book.getBookId(), true, book);
+    }
+
+    public static BookLookupResult missing(int bookId) {
+        return new BookLookupResult(bookId, false, null);
+    }
+}
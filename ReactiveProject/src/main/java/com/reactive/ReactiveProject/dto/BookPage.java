@@ -0,0 +1,13 @@
+package com.reactive.ReactiveProject.dto;
+
+import com.reactive.ReactiveProject.entities.Book;
+
+import java.util.List;
+
+// one keyset page of books ordered by bookId
+public record BookPage(List<Book> books, boolean hasMore) {
+
+    public int lastBookId() {
+        return books.isEmpty() ? 0 : books.get(books.size() - 1).getBookId();
+    }
+}
@@ -0,0 +1,6 @@
+package com.reactive.ReactiveProject.dto;
+
+// payload of the books.all RSocket stream: books after afterId in id order, at most limit of them (0 for the
+// configured maximum)
+public record BookStreamRequest(int afterId, int limit) {
+}
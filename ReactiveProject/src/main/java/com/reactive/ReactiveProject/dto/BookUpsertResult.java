@@ -0,0 +1,15 @@
+package com.reactive.ReactiveProject.dto;
+
+import com.reactive.ReactiveProject.entities.Book;
+
+// outcome of one book sent on the books.upsert channel; index is its position in the inbound stream
+public record BookUpsertResult(int index, int bookId, Book book, String error) {
+
+    public static BookUpsertResult written(int index, Book book) {
+        return new BookUpsertResult(index, book.getBookId(), book, null);
+    }
+
+    public static BookUpsertResult failed(int index, int bookId, String error) {
+        return new BookUpsertResult(index, bookId, null, error);
+    }
+}
@@ -0,0 +1,5 @@
+package com.reactive.ReactiveProject.dto;
+
+// outcome of DELETE /books?ids=
+public record BulkDeleteResult(int requested, long deleted) {
+}
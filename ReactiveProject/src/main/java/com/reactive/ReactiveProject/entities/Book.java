@@ -1,8 +1,11 @@
 package com.reactive.ReactiveProject.entities;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 @Table("book_details")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Book {
 
 
@@ -20,6 +23,10 @@ public class Book {
 
         private  String author;
 
+//    set by the database on insert and bumped on every update; null when the column was not selected
+        @Version
+        private  Integer version;
+
 //    ....
 
 
@@ -74,5 +81,13 @@ public class Book {
             this.author = author;
         }
 
+        public Integer getVersion() {
+            return version;
+        }
+
+        public void setVersion(Integer version) {
+            this.version = version;
+        }
+
 
 }
@@ -0,0 +1,46 @@
+package com.reactive.ReactiveProject.entities;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+// the Book properties a client may select with ?fields=, and the column behind each
+public enum BookField {
+
+    BOOK_ID("bookId", "book_id"),
+    NAME("name", "name"),
+    DESCRIPTION("description", "book_desc"),
+    PUBLISHER("publisher", "publisher"),
+    AUTHOR("author", "author"),
+    VERSION("version", "version");
+
+    public static final Set<BookField> ALL = Collections.unmodifiableSet(EnumSet.allOf(BookField.class));
+
+    //    enough to compare ETags, without reading book_desc
+    public static final Set<BookField> VERSIONS = Collections.unmodifiableSet(EnumSet.of(BOOK_ID, VERSION));
+
+    private final String property;
+
+    private final String column;
+
+    BookField(String property, String column) {
+        this.property = property;
+        this.column = column;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public static Optional<BookField> forProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst();
+    }
+}
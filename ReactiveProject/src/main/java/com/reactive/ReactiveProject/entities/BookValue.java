@@ -0,0 +1,17 @@
+package com.reactive.ReactiveProject.entities;
+
+// immutable snapshot of a Book's state; equal values mean identical JSON, so it keys the encoded-bytes cache
+public record BookValue(int bookId, String name, String description, String publisher, String author,
+                        Integer version) {
+
+    public static BookValue of(Book book) {
+        return new BookValue(book.getBookId(), book.getName(), book.getDescription(), book.getPublisher(),
+                book.getAuthor(), book.getVersion());
+    }
+
+    public Book toBook() {
+        Book book = new Book(bookId, name, description, publisher, author);
+        book.setVersion(version);
+        return book;
+    }
+}
@@ -0,0 +1,103 @@
+package com.reactive.ReactiveProject.metrics;
+
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import com.reactive.ReactiveProject.services.BookService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// times every BookService and BookRepository call from subscription to termination, and counts the rows
+// each returned Flux emits; meters are books.service and books.repository, with a .rows summary for each
+@Component
+public class ReactiveMethodMetrics implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ReactiveMethodMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof BookService) {
+            return instrument(bean, "books.service");
+        }
+        if (bean instanceof BookRepository) {
+            return instrument(bean, "books.repository");
+        }
+        return bean;
+    }
+
+    private Object instrument(Object bean, String name) {
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(new TimingInterceptor(name));
+        return proxyFactory.getProxy();
+    }
+
+    private final class TimingInterceptor implements MethodInterceptor {
+
+        private final String name;
+
+        private TimingInterceptor(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            String method = invocation.getMethod().getName();
+            if (result instanceof Mono<?> mono) {
+                return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return mono.doFinally(signal -> record(method, signal, start, -1));
+                });
+            }
+            if (result instanceof Flux<?> flux) {
+                return Flux.defer(() -> {
+                    long start = System.nanoTime();
+                    AtomicLong rows = new AtomicLong();
+                    return flux.doOnNext(item -> rows.incrementAndGet())
+                            .doFinally(signal -> record(method, signal, start, rows.get()));
+                });
+            }
+            return result;
+        }
+
+        private void record(String method, SignalType signal, long start, long rows) {
+            MeterRegistry registry = meterRegistry.getObject();
+            Timer.builder(name)
+                    .tag("method", method)
+                    .tag("outcome", outcome(signal))
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (rows >= 0) {
+                DistributionSummary.builder(name + ".rows")
+                        .baseUnit("rows")
+                        .tag("method", method)
+                        .register(registry)
+                        .record(rows);
+            }
+        }
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> signal.name().toLowerCase();
+        };
+    }
+}
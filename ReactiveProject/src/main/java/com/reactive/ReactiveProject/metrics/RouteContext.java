@@ -0,0 +1,38 @@
+package com.reactive.ReactiveProject.metrics;
+
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.function.Supplier;
+
+// the route of the request a reactive chain is serving, kept in the subscriber context; nothing copies it
+// onto threads, it is only read back where a statement is found to be slow
+public final class RouteContext {
+
+    private static final String KEY = "books.route";
+
+    private RouteContext() {
+    }
+
+    //    resolved lazily: the handler, and with it the matched pattern, is only known after the filters ran
+    public static Context of(ServerWebExchange exchange) {
+        Supplier<String> route = () -> {
+            Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            return exchange.getRequest().getMethod() + " "
+                    + (pattern != null ? pattern : exchange.getRequest().getPath().value());
+        };
+        return Context.of(KEY, route);
+    }
+
+    public static Context of(String route) {
+        Supplier<String> fixed = () -> route;
+        return Context.of(KEY, fixed);
+    }
+
+    public static String from(ContextView context) {
+        Supplier<String> route = context != null ? context.getOrDefault(KEY, null) : null;
+        return route != null ? route.get() : "-";
+    }
+}
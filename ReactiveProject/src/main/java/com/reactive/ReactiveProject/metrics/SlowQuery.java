@@ -0,0 +1,9 @@
+package com.reactive.ReactiveProject.metrics;
+
+import java.time.Instant;
+import java.util.List;
+
+// one statement that exceeded books.slow-queries.threshold; route is "-" when it could not be traced
+public record SlowQuery(long seq, Instant finishedAt, String route, String sql, List<String> parameters,
+                        long rows, double durationMillis, boolean success) {
+}
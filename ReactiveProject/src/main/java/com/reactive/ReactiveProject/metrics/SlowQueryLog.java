@@ -0,0 +1,115 @@
+package com.reactive.ReactiveProject.metrics;
+
+import io.r2dbc.proxy.core.Binding;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// keeps the most recent slow statements in a fixed-size ring; writers never lock or allocate beyond the record
+@Component
+public class SlowQueryLog implements ProxyExecutionListener {
+
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final long thresholdNanos;
+
+    private final boolean redactParameters;
+
+    private final AtomicReferenceArray<SlowQuery> slots;
+
+    private final AtomicLong next = new AtomicLong();
+
+    public SlowQueryLog(@Value("${books.slow-queries.threshold:200ms}") Duration threshold,
+                        @Value("${books.slow-queries.capacity:256}") int capacity,
+                        @Value("${books.slow-queries.redact-parameters:true}") boolean redactParameters) {
+        this.thresholdNanos = threshold.toNanos();
+        this.redactParameters = redactParameters;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    //    called once the statement's rows have been consumed; fast statements return after one comparison
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        Duration duration = execInfo.getExecuteDuration();
+        if (duration.toNanos() < thresholdNanos) {
+            return;
+        }
+        StringJoiner sql = new StringJoiner("; ");
+        List<String> parameters = new ArrayList<>();
+        for (QueryInfo query : execInfo.getQueries()) {
+            sql.add(query.getQuery());
+            query.getBindingsList().forEach(bindings -> {
+                StringJoiner values = new StringJoiner(", ", "[", "]");
+                bindings.getIndexBindings().forEach(binding -> values.add(format(binding)));
+                bindings.getNamedBindings().forEach(binding -> values.add(format(binding)));
+                parameters.add(values.toString());
+            });
+        }
+        //    the proxy keeps the context of the subscriber that executed the statement
+        ContextView context = execInfo.getValueStore().get(ContextView.class, ContextView.class);
+        record(sql.toString(), parameters, execInfo.getCurrentResultCount(), duration, RouteContext.from(context),
+                execInfo.isSuccess());
+    }
+
+    public void record(String sql, List<String> parameters, long rows, Duration duration, String route,
+                       boolean success) {
+        long seq = next.getAndIncrement();
+        SlowQuery query = new SlowQuery(seq, Instant.now(), route, sql, parameters, rows,
+                duration.toNanos() / 1_000_000.0, success);
+        //    a writer that stalled between claiming its seq and storing must not clobber a newer record
+        slots.accumulateAndGet(slot(seq), query,
+                (current, candidate) -> current == null || current.seq() < candidate.seq() ? candidate : current);
+    }
+
+    //    newest first; a slot overwritten while reading is skipped rather than reported out of order
+    public List<SlowQuery> snapshot() {
+        long end = next.get();
+        long start = Math.max(0, end - slots.length());
+        List<SlowQuery> queries = new ArrayList<>((int) (end - start));
+        for (long seq = end - 1; seq >= start; seq--) {
+            SlowQuery query = slots.get(slot(seq));
+            if (query != null && query.seq() == seq) {
+                queries.add(query);
+            }
+        }
+        return queries;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % slots.length());
+    }
+
+    private String format(Binding binding) {
+        BoundValue value = binding.getBoundValue();
+        String text;
+        if (value.isNull()) {
+            text = "null";
+        } else if (redactParameters) {
+            text = "?";
+        } else {
+            text = String.valueOf(value.getValue());
+            if (text.length() > MAX_VALUE_LENGTH) {
+                text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+            }
+        }
+        return binding.getKey() + "=" + text;
+    }
+}
@@ -0,0 +1,114 @@
+package com.reactive.ReactiveProject.repositories;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// secondary index from a key to the sorted ids of the books carrying it. Writes are logged per key and merged
+// into the sorted ids in batches, so indexing n books under one key costs O(n log n) rather than a copy of the
+// array per book. Readers get an array that is never written again, merged on the first read after a write.
+// Null keys are not indexed, as in SQL where = null never matches.
+public final class BookIndex<K> {
+
+    private static final int[] NONE = new int[0];
+
+    private final ConcurrentHashMap<K, Posting> entries = new ConcurrentHashMap<>();
+
+    public int[] get(K key) {
+        if (key == null) {
+            return NONE;
+        }
+        Posting posting = entries.get(key);
+        return posting != null ? posting.ids() : NONE;
+    }
+
+    public void add(K key, int bookId) {
+        if (key == null) {
+            return;
+        }
+        entries.compute(key, (k, posting) -> {
+            Posting bookIds = posting != null ? posting : new Posting();
+            return bookIds.log(bookId, true) ? bookIds : null;
+        });
+    }
+
+    public void remove(K key, int bookId) {
+        if (key == null) {
+            return;
+        }
+        entries.computeIfPresent(key, (k, bookIds) -> bookIds.log(bookId, false) ? bookIds : null);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static final class Posting {
+
+        private static final int MIN_PENDING = 64;
+
+        //    replaced by every merge, never written once published
+        private int[] ids = NONE;
+
+        //    adds and removals since the last merge, as bookId << 32 | sequence << 1 | added
+        private long[] pending = new long[4];
+
+        private int pendingCount;
+
+        private int pendingRemovals;
+
+        //    false when the key has no books left
+        synchronized boolean log(int bookId, boolean added) {
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            }
+            pending[pendingCount] = ((long) bookId << 32) | ((long) pendingCount << 1) | (added ? 1 : 0);
+            pendingCount++;
+            if (!added) {
+                pendingRemovals++;
+            }
+            //    merged once the log outgrows the ids, or once it may have removed all of them
+            if (pendingCount >= Math.max(MIN_PENDING, ids.length)
+                    || pendingRemovals >= ids.length + pendingCount - pendingRemovals) {
+                merge();
+                return ids.length > 0;
+            }
+            return true;
+        }
+
+        synchronized int[] ids() {
+            if (pendingCount > 0) {
+                merge();
+            }
+            return ids;
+        }
+
+        private void merge() {
+            Arrays.sort(pending, 0, pendingCount);
+            int[] merged = new int[ids.length + pendingCount];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < ids.length || j < pendingCount) {
+                int next = j < pendingCount ? (int) (pending[j] >> 32) : 0;
+                if (j == pendingCount || (i < ids.length && ids[i] < next)) {
+                    merged[count++] = ids[i++];
+                    continue;
+                }
+                //    the last logged write of an id decides whether it stays
+                boolean present = i < ids.length && ids[i] == next;
+                if (present) {
+                    i++;
+                }
+                while (j < pendingCount && (int) (pending[j] >> 32) == next) {
+                    present = (pending[j++] & 1) == 1;
+                }
+                if (present) {
+                    merged[count++] = next;
+                }
+            }
+            ids = count == merged.length ? merged : Arrays.copyOf(merged, count);
+            pendingCount = 0;
+            pendingRemovals = 0;
+        }
+    }
+}
@@ -10,15 +10,24 @@ import reactor.core.publisher.Mono;
 
 
 @Repository
-public interface BookRepository extends ReactiveCrudRepository<Book, Integer> {
+public interface BookRepository extends ReactiveCrudRepository<Book, Integer>, BookRepositoryCustom {
 
     Mono<Book> findByName(String name);
     Flux<Book> findByAuthor(String author);
     Flux<Book> findByPublisher(String publisher);
     Flux<Book> findByNameAndAuthor(String name,String author);
+    Flux<Book> findByNameIgnoreCase(String name);
+    Flux<Book> findByAuthorIgnoreCase(String author);
 
 
 
+    @Query("select * from book_details where book_id > :afterId order by book_id limit :limit")
+    Flux<Book> findPage(int afterId, int limit);
+
+    @Modifying
+    @Query("delete from book_details where book_id = :bookId")
+    Mono<Integer> deleteByBookId(int bookId);
+
     @Query("select * from book_details where name = :name AND author = :author")
     Flux<Book> getAllBooksByAuthor(String name, String author);
 
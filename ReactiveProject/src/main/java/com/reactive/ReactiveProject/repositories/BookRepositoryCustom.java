@@ -0,0 +1,46 @@
+package com.reactive.ReactiveProject.repositories;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+// statements that derived queries and @Query cannot express
+public interface BookRepositoryCustom {
+
+    //    inserts all books in one transaction and returns their generated ids in input order
+    Flux<Integer> insertAll(List<Book> books);
+
+    //    overwrites every column in one round trip; empty when the book does not exist
+    Mono<Book> updateReturning(int bookId, Book book);
+
+    //    overwrites only the non-null columns in one round trip; empty when the book does not exist
+    Mono<Book> partialUpdateReturning(int bookId, Book book);
+
+    //    the same writes applied only while the row is still at the given version; empty otherwise
+    Mono<Book> updateReturning(int bookId, int version, Book book);
+
+    Mono<Book> partialUpdateReturning(int bookId, int version, Book book);
+
+    //    reads every listed book in one statement; missing ids are simply absent from the result
+    Flux<Book> findAllByIds(Collection<Integer> bookIds);
+
+    //    the finders below select only the given columns; unselected properties stay null
+    Flux<Book> findAllByIds(Collection<Integer> bookIds, Set<BookField> fields);
+
+    Flux<Book> findPage(int afterId, int limit, Set<BookField> fields);
+
+    Flux<Book> findByAuthor(String author, boolean ignoreCase, Set<BookField> fields);
+
+    Flux<Book> findByNameAndAuthor(String name, String author, Set<BookField> fields);
+
+    //    matches on the search_vector column, best rank first
+    Flux<Book> fullTextSearch(String query, int limit, long offset, Set<BookField> fields);
+
+    //    deletes every listed book in one statement and returns how many rows were removed
+    Mono<Long> deleteAllByIds(Collection<Integer> bookIds);
+}
@@ -0,0 +1,212 @@
+package com.reactive.ReactiveProject.repositories;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
+import io.r2dbc.spi.Statement;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String INSERT =
+            "insert into book_details (name, book_desc, publisher, author) values ($1, $2, $3, $4)";
+
+    private final DatabaseClient databaseClient;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final R2dbcConverter converter;
+
+    public BookRepositoryCustomImpl(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+                                    R2dbcConverter converter) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.converter = converter;
+    }
+
+    @Override
+    public Flux<Integer> insertAll(List<Book> books) {
+        if (books.isEmpty()) {
+            return Flux.empty();
+        }
+        //    one statement with a binding per row: the driver pipelines them in a single round trip
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT).returnGeneratedValues("book_id");
+                    for (int i = 0; i < books.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        Book book = books.get(i);
+                        bind(statement, 0, book.getName());
+                        bind(statement, 1, book.getDescription());
+                        bind(statement, 2, book.getPublisher());
+                        bind(statement, 3, book.getAuthor());
+                    }
+                    return Flux.from(statement.execute())
+                            .concatMap(result -> result.map((row, metadata) -> row.get("book_id", Integer.class)));
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Book> updateReturning(int bookId, Book book) {
+        return updateReturning(bookId, null, columns(book, false));
+    }
+
+    @Override
+    public Mono<Book> partialUpdateReturning(int bookId, Book book) {
+        return partialUpdateReturning(bookId, null, columns(book, true));
+    }
+
+    @Override
+    public Mono<Book> updateReturning(int bookId, int version, Book book) {
+        return updateReturning(bookId, version, columns(book, false));
+    }
+
+    @Override
+    public Mono<Book> partialUpdateReturning(int bookId, int version, Book book) {
+        return partialUpdateReturning(bookId, version, columns(book, true));
+    }
+
+    @Override
+    public Flux<Book> findAllByIds(Collection<Integer> bookIds) {
+        return findAllByIds(bookIds, BookField.ALL);
+    }
+
+    @Override
+    public Flux<Book> findAllByIds(Collection<Integer> bookIds, Set<BookField> fields) {
+        if (bookIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return select(fields, "book_id = any(:bookIds)")
+                .bind("bookIds", bookIds.toArray(new Integer[0]))
+                .map((row, metadata) -> converter.read(Book.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Flux<Book> findPage(int afterId, int limit, Set<BookField> fields) {
+        return select(fields, "book_id > :afterId order by book_id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map((row, metadata) -> converter.read(Book.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Flux<Book> findByAuthor(String author, boolean ignoreCase, Set<BookField> fields) {
+        //    same predicate as the derived IgnoreCase finder, so the upper(author) index applies
+        return select(fields, ignoreCase ? "upper(author) = upper(:author)" : "author = :author")
+                .bind("author", author)
+                .map((row, metadata) -> converter.read(Book.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Flux<Book> findByNameAndAuthor(String name, String author, Set<BookField> fields) {
+        return select(fields, "name = :name and author = :author")
+                .bind("name", name)
+                .bind("author", author)
+                .map((row, metadata) -> converter.read(Book.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Flux<Book> fullTextSearch(String query, int limit, long offset, Set<BookField> fields) {
+        return select(fields, "search_vector @@ websearch_to_tsquery('english', :query)"
+                + " order by ts_rank(search_vector, websearch_to_tsquery('english', :query)) desc, book_id"
+                + " limit :limit offset :offset")
+                .bind("query", query)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map((row, metadata) -> converter.read(Book.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> deleteAllByIds(Collection<Integer> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Mono.just(0L);
+        }
+        //    bound as a single int[] parameter, so the statement text is the same for any number of ids
+        return databaseClient.sql("delete from book_details where book_id = any(:bookIds)")
+                .bind("bookIds", bookIds.toArray(new Integer[0]))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    //    the select list comes from the BookField whitelist, never from the request text
+    private DatabaseClient.GenericExecuteSpec select(Set<BookField> fields, String condition) {
+        StringJoiner columns = new StringJoiner(", ");
+        fields.forEach(field -> columns.add(field.column()));
+        return databaseClient.sql("select " + columns + " from book_details where " + condition);
+    }
+
+    private Mono<Book> partialUpdateReturning(int bookId, Integer version, Map<String, String> columns) {
+        if (columns.isEmpty()) {
+            DatabaseClient.GenericExecuteSpec select = databaseClient
+                    .sql("select * from book_details where " + condition(version))
+                    .bind("bookId", bookId);
+            return bindVersion(select, version)
+                    .map((row, metadata) -> converter.read(Book.class, row, metadata))
+                    .one();
+        }
+        return updateReturning(bookId, version, columns);
+    }
+
+    //    column names come from the fixed mapping in columns(), only values are bound; the version column is
+    //    bumped by a trigger, so returning * carries the new one
+    private Mono<Book> updateReturning(int bookId, Integer version, Map<String, String> columns) {
+        StringJoiner assignments = new StringJoiner(", ");
+        columns.keySet().forEach(column -> assignments.add(column + " = :" + column));
+        DatabaseClient.GenericExecuteSpec update = databaseClient
+                .sql("update book_details set " + assignments + " where " + condition(version) + " returning *")
+                .bind("bookId", bookId);
+        update = bindVersion(update, version);
+        for (Map.Entry<String, String> column : columns.entrySet()) {
+            update = column.getValue() == null
+                    ? update.bindNull(column.getKey(), String.class)
+                    : update.bind(column.getKey(), column.getValue());
+        }
+        return update.map((row, metadata) -> converter.read(Book.class, row, metadata)).one();
+    }
+
+    private static String condition(Integer version) {
+        return version == null ? "book_id = :bookId" : "book_id = :bookId and version = :version";
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindVersion(DatabaseClient.GenericExecuteSpec spec,
+                                                                Integer version) {
+        return version == null ? spec : spec.bind("version", version);
+    }
+
+    private static Map<String, String> columns(Book book, boolean nonNullOnly) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("name", book.getName());
+        columns.put("book_desc", book.getDescription());
+        columns.put("publisher", book.getPublisher());
+        columns.put("author", book.getAuthor());
+        if (nonNullOnly) {
+            columns.values().removeIf(value -> value == null);
+        }
+        return columns;
+    }
+
+    private static void bind(Statement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index, String.class);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.reactive.ReactiveProject.repositories;
+
+import com.reactive.ReactiveProject.entities.Book;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// int-keyed book store: an id indexes straight into a lazily allocated page, so lookups neither hash nor box,
+// and scanning the pages in order yields books in id order as the keyset queries expect
+final class BookTable {
+
+    private static final int PAGE_BITS = 12;
+
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<Book>> pages =
+            new AtomicReferenceArray<>(1 << (Integer.SIZE - 1 - PAGE_BITS));
+
+    private final AtomicInteger highestId = new AtomicInteger();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    Book get(int bookId) {
+        if (bookId <= 0) {
+            return null;
+        }
+        AtomicReferenceArray<Book> page = pages.get(bookId >>> PAGE_BITS);
+        return page == null ? null : page.get(bookId & PAGE_MASK);
+    }
+
+    //    returns the previous book, null when the id was free
+    Book put(int bookId, Book book) {
+        Book previous = page(bookId).getAndSet(bookId & PAGE_MASK, book);
+        if (previous == null) {
+            size.incrementAndGet();
+            highestId.accumulateAndGet(bookId, Math::max);
+        }
+        return previous;
+    }
+
+    Book remove(int bookId) {
+        if (bookId <= 0) {
+            return null;
+        }
+        AtomicReferenceArray<Book> page = pages.get(bookId >>> PAGE_BITS);
+        Book previous = page == null ? null : page.getAndSet(bookId & PAGE_MASK, null);
+        if (previous != null) {
+            size.decrementAndGet();
+        }
+        return previous;
+    }
+
+    //    the lowest occupied id above afterId, or 0 when there is none
+    int next(int afterId) {
+        int highest = highestId.get();
+        int bookId = Math.max(afterId, 0) + 1;
+        while (bookId > 0 && bookId <= highest) {
+            AtomicReferenceArray<Book> page = pages.get(bookId >>> PAGE_BITS);
+            if (page == null) {
+                bookId = ((bookId >>> PAGE_BITS) + 1) << PAGE_BITS;
+                continue;
+            }
+            for (int slot = bookId & PAGE_MASK; slot < PAGE_SIZE; slot++, bookId++) {
+                if (page.get(slot) != null) {
+                    return bookId;
+                }
+            }
+        }
+        return 0;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    void clear() {
+        for (int i = 0; i < pages.length(); i++) {
+            pages.set(i, null);
+        }
+        size.set(0);
+        highestId.set(0);
+    }
+
+    private AtomicReferenceArray<Book> page(int bookId) {
+        if (bookId <= 0) {
+            throw new IllegalArgumentException("Book ids must be positive: " + bookId);
+        }
+        int index = bookId >>> PAGE_BITS;
+        AtomicReferenceArray<Book> page = pages.get(index);
+        if (page == null) {
+            pages.compareAndSet(index, null, new AtomicReferenceArray<>(PAGE_SIZE));
+            page = pages.get(index);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,520 @@
+package com.reactive.ReactiveProject.repositories;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
+import com.reactive.ReactiveProject.search.BookSearchIndex;
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// BookRepository without a database, for the inmemory profile: books live in an int-keyed BookTable and every
+// finder is served from a secondary index. Reads return copies and never take the write locks; writes to one
+// id are serialized so a book and its index entries change together. Readers recheck each indexed book against
+// the predicate.
+// Versions follow the book_details trigger: 0 on insert, one more on every update.
+@Repository
+@Profile("inmemory")
+public class InMemoryBookRepository implements BookRepository {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final BookTable table = new BookTable();
+
+    //    like the serial column, ids are never reused, even after deleteAll
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private final BookIndex<String> byAuthor = new BookIndex<>();
+
+    private final BookIndex<String> byUpperAuthor = new BookIndex<>();
+
+    private final BookIndex<String> byPublisher = new BookIndex<>();
+
+    private final BookIndex<String> byUpperName = new BookIndex<>();
+
+    private final BookIndex<NameAndAuthor> byNameAndAuthor = new BookIndex<>();
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public InMemoryBookRepository() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    //    ReactiveCrudRepository
+
+    @Override
+    public <S extends Book> Mono<S> save(S book) {
+        Assert.notNull(book, "Entity must not be null");
+        return Mono.fromCallable(() -> {
+            //    as with Spring Data's @Version: no version means insert, under the given id if there is one
+            if (book.getVersion() == null) {
+                int bookId = book.getBookId();
+                if (bookId == 0) {
+                    bookId = sequence.incrementAndGet();
+                } else {
+                    //    unlike the serial column, keeps later generated ids clear of an explicitly inserted one
+                    sequence.accumulateAndGet(bookId, Math::max);
+                }
+                Book inserted = copy(book);
+                inserted.setBookId(bookId);
+                inserted.setVersion(0);
+                if (!insert(bookId, inserted)) {
+                    throw new DuplicateKeyException("Book " + bookId + " already exists");
+                }
+                book.setBookId(bookId);
+                book.setVersion(0);
+                return book;
+            }
+            Book updated = replace(book.getBookId(), book.getVersion(), current -> copy(book));
+            if (updated == null) {
+                throw new OptimisticLockingFailureException("Failed to update table [book_details]; Version does not match "
+                        + "for row with Id [" + book.getBookId() + "]");
+            }
+            book.setVersion(updated.getVersion());
+            return book;
+        });
+    }
+
+    @Override
+    public <S extends Book> Flux<S> saveAll(Iterable<S> books) {
+        return Flux.fromIterable(books).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends Book> Flux<S> saveAll(Publisher<S> books) {
+        return Flux.from(books).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Book> findById(Integer bookId) {
+        return Mono.fromSupplier(() -> copy(table.get(bookId), BookField.ALL));
+    }
+
+    @Override
+    public Mono<Book> findById(Publisher<Integer> bookId) {
+        return Mono.from(bookId).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Integer bookId) {
+        return Mono.fromSupplier(() -> table.get(bookId) != null);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Integer> bookId) {
+        return Mono.from(bookId).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Book> findAll() {
+        return scan(0, BookField.ALL);
+    }
+
+    @Override
+    public Flux<Book> findAllById(Iterable<Integer> bookIds) {
+        List<Integer> ids = new ArrayList<>();
+        bookIds.forEach(ids::add);
+        return findAllByIds(ids);
+    }
+
+    @Override
+    public Flux<Book> findAllById(Publisher<Integer> bookIds) {
+        return Flux.from(bookIds).collectList().flatMapMany(this::findAllByIds);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> (long) table.size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer bookId) {
+        return Mono.fromRunnable(() -> remove(bookId));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Integer> bookId) {
+        return Mono.from(bookId).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Book book) {
+        return deleteById(book.getBookId());
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Integer> bookIds) {
+        return Mono.fromRunnable(() -> bookIds.forEach(this::remove));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Book> books) {
+        return Mono.fromRunnable(() -> books.forEach(book -> remove(book.getBookId())));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Book> books) {
+        return Flux.from(books).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(() -> {
+            table.clear();
+            byAuthor.clear();
+            byUpperAuthor.clear();
+            byPublisher.clear();
+            byUpperName.clear();
+            byNameAndAuthor.clear();
+        });
+    }
+
+    //    derived finders and @Query methods of BookRepository
+
+    @Override
+    public Mono<Book> findByName(String name) {
+        return lookup(() -> byUpperName.get(upper(name)), book -> Objects.equals(book.getName(), name), BookField.ALL)
+                .collectList()
+                .flatMap(books -> books.size() > 1
+                        ? Mono.error(new IncorrectResultSizeDataAccessException(1, books.size()))
+                        : Mono.justOrEmpty(books.isEmpty() ? null : books.get(0)));
+    }
+
+    @Override
+    public Flux<Book> findByAuthor(String author) {
+        return findByAuthor(author, false, BookField.ALL);
+    }
+
+    @Override
+    public Flux<Book> findByPublisher(String publisher) {
+        return lookup(() -> byPublisher.get(publisher), book -> Objects.equals(book.getPublisher(), publisher),
+                BookField.ALL);
+    }
+
+    @Override
+    public Flux<Book> findByNameAndAuthor(String name, String author) {
+        return findByNameAndAuthor(name, author, BookField.ALL);
+    }
+
+    @Override
+    public Flux<Book> findByNameIgnoreCase(String name) {
+        String upperName = upper(name);
+        return lookup(() -> byUpperName.get(upperName), book -> Objects.equals(upper(book.getName()), upperName),
+                BookField.ALL);
+    }
+
+    @Override
+    public Flux<Book> findByAuthorIgnoreCase(String author) {
+        return findByAuthor(author, true, BookField.ALL);
+    }
+
+    @Override
+    public Flux<Book> findPage(int afterId, int limit) {
+        return findPage(afterId, limit, BookField.ALL);
+    }
+
+    @Override
+    public Mono<Integer> deleteByBookId(int bookId) {
+        return Mono.fromSupplier(() -> remove(bookId) != null ? 1 : 0);
+    }
+
+    @Override
+    public Flux<Book> getAllBooksByAuthor(String name, String author) {
+        return findByNameAndAuthor(name, author, BookField.ALL);
+    }
+
+    //    BookRepositoryCustom
+
+    @Override
+    public Flux<Integer> insertAll(List<Book> books) {
+        return Flux.defer(() -> {
+            List<Integer> bookIds = new ArrayList<>(books.size());
+            for (Book book : books) {
+                int bookId = sequence.incrementAndGet();
+                Book inserted = copy(book);
+                inserted.setBookId(bookId);
+                inserted.setVersion(0);
+                write(bookId, inserted);
+                bookIds.add(bookId);
+            }
+            return Flux.fromIterable(bookIds);
+        });
+    }
+
+    @Override
+    public Mono<Book> updateReturning(int bookId, Book book) {
+        return updateReturning(bookId, null, book);
+    }
+
+    @Override
+    public Mono<Book> partialUpdateReturning(int bookId, Book book) {
+        return partialUpdateReturning(bookId, null, book);
+    }
+
+    @Override
+    public Mono<Book> updateReturning(int bookId, int version, Book book) {
+        return updateReturning(bookId, (Integer) version, book);
+    }
+
+    @Override
+    public Mono<Book> partialUpdateReturning(int bookId, int version, Book book) {
+        return partialUpdateReturning(bookId, (Integer) version, book);
+    }
+
+    private Mono<Book> updateReturning(int bookId, Integer version, Book book) {
+        return Mono.fromSupplier(() -> copy(replace(bookId, version, current -> copy(book)), BookField.ALL));
+    }
+
+    private Mono<Book> partialUpdateReturning(int bookId, Integer version, Book book) {
+        return Mono.fromSupplier(() -> copy(replace(bookId, version, current -> new Book(bookId,
+                book.getName() != null ? book.getName() : current.getName(),
+                book.getDescription() != null ? book.getDescription() : current.getDescription(),
+                book.getPublisher() != null ? book.getPublisher() : current.getPublisher(),
+                book.getAuthor() != null ? book.getAuthor() : current.getAuthor())), BookField.ALL));
+    }
+
+    @Override
+    public Flux<Book> findAllByIds(Collection<Integer> bookIds) {
+        return findAllByIds(bookIds, BookField.ALL);
+    }
+
+    @Override
+    public Flux<Book> findAllByIds(Collection<Integer> bookIds, Set<BookField> fields) {
+        //    like = any(:ids), a repeated id matches its row once
+        return Flux.defer(() -> Flux.fromIterable(new LinkedHashSet<>(bookIds)))
+                .mapNotNull(bookId -> copy(table.get(bookId), fields));
+    }
+
+    @Override
+    public Flux<Book> findPage(int afterId, int limit, Set<BookField> fields) {
+        return scan(afterId, fields).take(limit);
+    }
+
+    @Override
+    public Flux<Book> findByAuthor(String author, boolean ignoreCase, Set<BookField> fields) {
+        if (ignoreCase) {
+            String upperAuthor = upper(author);
+            return lookup(() -> byUpperAuthor.get(upperAuthor),
+                    book -> Objects.equals(upper(book.getAuthor()), upperAuthor), fields);
+        }
+        return lookup(() -> byAuthor.get(author), book -> Objects.equals(book.getAuthor(), author), fields);
+    }
+
+    @Override
+    public Flux<Book> findByNameAndAuthor(String name, String author, Set<BookField> fields) {
+        NameAndAuthor key = new NameAndAuthor(name, author);
+        return lookup(() -> byNameAndAuthor.get(key), book -> key.equals(NameAndAuthor.of(book)), fields);
+    }
+
+    //    a scan standing in for the search_vector column: every term must occur, and each field it occurs in
+    //    adds its ts_rank weight (name A, author B, publisher C, description D). Terms are not stemmed.
+    @Override
+    public Flux<Book> fullTextSearch(String query, int limit, long offset, Set<BookField> fields) {
+        Set<String> terms = BookSearchIndex.tokenize(query);
+        if (terms.isEmpty()) {
+            return Flux.empty();
+        }
+        return scan(0, BookField.ALL)
+                .mapNotNull(book -> ScoredBook.of(book, terms))
+                .collectSortedList(Comparator.comparingDouble(ScoredBook::score).reversed()
+                        .thenComparingInt(scored -> scored.book().getBookId()))
+                .flatMapIterable(ranked -> ranked)
+                .skip(offset)
+                .take(limit)
+                .map(scored -> copy(scored.book(), fields));
+    }
+
+    @Override
+    public Mono<Long> deleteAllByIds(Collection<Integer> bookIds) {
+        return Mono.fromSupplier(() -> new LinkedHashSet<>(bookIds).stream()
+                .filter(bookId -> remove(bookId) != null)
+                .count());
+    }
+
+    //    books in id order after afterId, produced one at a time as they are requested
+    private Flux<Book> scan(int afterId, Set<BookField> fields) {
+        return Flux.generate(() -> afterId, (cursor, sink) -> {
+            int bookId = cursor;
+            Book book = null;
+            while (book == null) {
+                bookId = table.next(bookId);
+                if (bookId == 0) {
+                    sink.complete();
+                    return cursor;
+                }
+                book = table.get(bookId);
+            }
+            sink.next(copy(book, fields));
+            return bookId;
+        });
+    }
+
+    //    the id array is read at subscription; books changed since they were indexed are rechecked
+    private Flux<Book> lookup(Supplier<int[]> index, Predicate<Book> matches, Set<BookField> fields) {
+        return Flux.defer(() -> {
+            int[] bookIds = index.get();
+            return Flux.range(0, bookIds.length)
+                    .mapNotNull(i -> {
+                        Book book = table.get(bookIds[i]);
+                        return book != null && matches.test(book) ? copy(book, fields) : null;
+                    });
+        });
+    }
+
+    private void write(int bookId, Book book) {
+        synchronized (lock(bookId)) {
+            unindex(table.put(bookId, book));
+            index(book);
+        }
+    }
+
+    private boolean insert(int bookId, Book book) {
+        synchronized (lock(bookId)) {
+            if (table.get(bookId) != null) {
+                return false;
+            }
+            write(bookId, book);
+            return true;
+        }
+    }
+
+    //    applies the update to the stored book and returns the result, or null when there is no such book or,
+    //    given a version, the book has moved past it
+    private Book replace(int bookId, Integer version, UnaryOperator<Book> update) {
+        synchronized (lock(bookId)) {
+            Book current = table.get(bookId);
+            if (current == null || (version != null && !version.equals(current.getVersion()))) {
+                return null;
+            }
+            Book updated = update.apply(current);
+            updated.setBookId(bookId);
+            updated.setVersion(current.getVersion() + 1);
+            table.put(bookId, updated);
+            unindex(current);
+            index(updated);
+            return updated;
+        }
+    }
+
+    private Book remove(int bookId) {
+        synchronized (lock(bookId)) {
+            Book removed = table.remove(bookId);
+            unindex(removed);
+            return removed;
+        }
+    }
+
+    private void index(Book book) {
+        int bookId = book.getBookId();
+        byAuthor.add(book.getAuthor(), bookId);
+        byUpperAuthor.add(upper(book.getAuthor()), bookId);
+        byPublisher.add(book.getPublisher(), bookId);
+        byUpperName.add(upper(book.getName()), bookId);
+        byNameAndAuthor.add(NameAndAuthor.of(book), bookId);
+    }
+
+    private void unindex(Book book) {
+        if (book == null) {
+            return;
+        }
+        int bookId = book.getBookId();
+        byAuthor.remove(book.getAuthor(), bookId);
+        byUpperAuthor.remove(upper(book.getAuthor()), bookId);
+        byPublisher.remove(book.getPublisher(), bookId);
+        byUpperName.remove(upper(book.getName()), bookId);
+        byNameAndAuthor.remove(NameAndAuthor.of(book), bookId);
+    }
+
+    private Object lock(int bookId) {
+        return locks[bookId & (LOCK_STRIPES - 1)];
+    }
+
+    private static String upper(String value) {
+        return value == null ? null : value.toUpperCase(Locale.ROOT);
+    }
+
+    private static Book copy(Book book) {
+        Book copy = new Book(book.getBookId(), book.getName(), book.getDescription(), book.getPublisher(),
+                book.getAuthor());
+        copy.setVersion(book.getVersion());
+        return copy;
+    }
+
+    //    stored books are never handed out, so callers cannot change them behind the indexes
+    private static Book copy(Book book, Set<BookField> fields) {
+        if (book == null) {
+            return null;
+        }
+        if (fields.size() == BookField.ALL.size()) {
+            return copy(book);
+        }
+        Book copy = new Book();
+        for (BookField field : fields) {
+            switch (field) {
+                case BOOK_ID -> copy.setBookId(book.getBookId());
+                case NAME -> copy.setName(book.getName());
+                case DESCRIPTION -> copy.setDescription(book.getDescription());
+                case PUBLISHER -> copy.setPublisher(book.getPublisher());
+                case AUTHOR -> copy.setAuthor(book.getAuthor());
+                case VERSION -> copy.setVersion(book.getVersion());
+            }
+        }
+        return copy;
+    }
+
+    private record ScoredBook(Book book, float score) {
+
+        private static final float[] WEIGHTS = {1.0f, 0.4f, 0.2f, 0.1f};
+
+        //    null unless every term occurs in the book
+        static ScoredBook of(Book book, Set<String> terms) {
+            List<Set<String>> fields = List.of(BookSearchIndex.tokenize(book.getName()),
+                    BookSearchIndex.tokenize(book.getAuthor()), BookSearchIndex.tokenize(book.getPublisher()),
+                    BookSearchIndex.tokenize(book.getDescription()));
+            float score = 0;
+            for (String term : terms) {
+                float termScore = 0;
+                for (int i = 0; i < WEIGHTS.length; i++) {
+                    if (fields.get(i).contains(term)) {
+                        termScore += WEIGHTS[i];
+                    }
+                }
+                if (termScore == 0) {
+                    return null;
+                }
+                score += termScore;
+            }
+            return new ScoredBook(book, score);
+        }
+    }
+
+    //    key of the (name, author) index; books missing either value are not indexed, as = null never matches
+    private record NameAndAuthor(String name, String author) {
+
+        static NameAndAuthor of(Book book) {
+            return book.getName() == null || book.getAuthor() == null
+                    ? null
+                    : new NameAndAuthor(book.getName(), book.getAuthor());
+        }
+    }
+}
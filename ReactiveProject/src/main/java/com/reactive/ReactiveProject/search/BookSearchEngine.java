@@ -0,0 +1,32 @@
+package com.reactive.ReactiveProject.search;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+// backend for BookService.search, chosen with books.search.engine
+public interface BookSearchEngine {
+
+    //    one page of matches, best first, with only the given fields loaded
+    Flux<Book> search(String query, int page, int size, Set<BookField> fields);
+
+    //    true when index() and remove() maintain a per-node copy that other nodes' writes must reach
+    default boolean indexesLocally() {
+        return false;
+    }
+
+    //    write-path hooks for engines that keep their own copy of the catalog
+    default void index(Book book) {
+    }
+
+    default void remove(int bookId) {
+    }
+
+    //    reloads the per-node copy from the table, dropping books the table no longer has
+    default Mono<Void> rebuild() {
+        return Mono.empty();
+    }
+}
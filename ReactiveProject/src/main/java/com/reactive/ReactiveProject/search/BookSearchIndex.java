@@ -0,0 +1,344 @@
+package com.reactive.ReactiveProject.search;
+
+import com.reactive.ReactiveProject.entities.Book;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// in-memory inverted index over name, author, publisher and description
+public class BookSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "to", "with");
+
+    private static final float NAME_WEIGHT = 4f;
+    private static final float AUTHOR_WEIGHT = 3f;
+    private static final float PUBLISHER_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    //    best matches kept ready per term, enough for every page up to books.search.max-results
+    private static final int TOP_SIZE = 1024;
+
+    //    token -> books containing it, with the weight of the token in each
+    private final Map<String, Posting> postings = new ConcurrentHashMap<>();
+
+    //    bookId -> tokens currently indexed for that book, needed to unindex it
+    private final Map<Integer, String[]> documents = new ConcurrentHashMap<>();
+
+    public void index(Book book) {
+        Map<String, Float> weights = new HashMap<>();
+        addTokens(weights, book.getName(), NAME_WEIGHT);
+        addTokens(weights, book.getAuthor(), AUTHOR_WEIGHT);
+        addTokens(weights, book.getPublisher(), PUBLISHER_WEIGHT);
+        addTokens(weights, book.getDescription(), DESCRIPTION_WEIGHT);
+
+        int bookId = book.getBookId();
+        documents.compute(bookId, (id, previous) -> {
+            if (previous != null) {
+                Arrays.stream(previous)
+                        .filter(token -> !weights.containsKey(token))
+                        .forEach(token -> unpost(token, id));
+            }
+            weights.forEach((token, weight) -> postings.compute(token, (t, posting) -> {
+                Posting books = posting != null ? posting : new Posting();
+                books.put(id, weight);
+                return books;
+            }));
+            return weights.keySet().toArray(String[]::new);
+        });
+    }
+
+    public void remove(int bookId) {
+        documents.computeIfPresent(bookId, (id, tokens) -> {
+            for (String token : tokens) {
+                unpost(token, id);
+            }
+            return null;
+        });
+    }
+
+    //    a copy, so books can be removed while iterating it
+    public Set<Integer> bookIds() {
+        return Set.copyOf(documents.keySet());
+    }
+
+    //    ids of the best matching books containing every query term, best first
+    public List<Integer> search(String query, int limit) {
+        Set<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Posting[] matches = new Posting[terms.size()];
+        int found = 0;
+        for (String term : terms) {
+            Posting posting = postings.get(term);
+            if (posting == null) {
+                return List.of();
+            }
+            matches[found++] = posting;
+        }
+        if (matches.length == 1) {
+            //    one term ranks by its weight alone, so its precomputed best matches are the answer
+            return matches[0].top(limit);
+        }
+        //    drive the intersection from the rarest term
+        Arrays.sort(matches, Comparator.comparingInt(Posting::size));
+
+        int documentCount = Math.max(documents.size(), 1);
+        Candidates candidates = matches[0].candidates(idf(documentCount, matches[0]));
+        for (int i = 1; i < matches.length && candidates.size > 0; i++) {
+            matches[i].intersect(candidates, idf(documentCount, matches[i]));
+        }
+        return candidates.best(limit);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private static float idf(int documentCount, Posting posting) {
+        return (float) Math.log(1 + (double) documentCount / Math.max(posting.size(), 1));
+    }
+
+    private void unpost(String token, int bookId) {
+        postings.computeIfPresent(token, (t, books) -> books.remove(bookId) ? null : books);
+    }
+
+    private static void addTokens(Map<String, Float> weights, String text, float weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    //    orders by score descending, then book id ascending; scores are positive, so their bits sort like them
+    private static long rankKey(int bookId, float score) {
+        return ((long) (Integer.MAX_VALUE - Float.floatToIntBits(score)) << 32) | (bookId & 0xffffffffL);
+    }
+
+    private static List<Integer> rankedIds(long[] keys, int count, int limit) {
+        Arrays.sort(keys, 0, count);
+        Integer[] ids = new Integer[Math.min(count, limit)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (int) keys[i];
+        }
+        return List.of(ids);
+    }
+
+    //    one term's books as parallel id and weight arrays sorted by id. Writes to books not yet in it are
+    //    appended to an unsorted tail and removals leave a zero weight, both merged away before the next read
+    //    or once the tail outgrows an eighth of the sorted part, so a write costs amortized constant time.
+    private static final class Posting {
+
+        private int[] ids = new int[4];
+
+        private float[] weights = new float[4];
+
+        //    ids[0, sorted) ascending, ids[sorted, length) appended since the last merge
+        private int sorted;
+
+        private int length;
+
+        private int live;
+
+        //    best ids first with rankKey of the worst one; null once a write may have changed them
+        private int[] top;
+
+        private long topFloor;
+
+        synchronized void put(int bookId, float weight) {
+            int slot = find(bookId);
+            if (slot < 0) {
+                if (length == ids.length) {
+                    ids = Arrays.copyOf(ids, length * 2);
+                    weights = Arrays.copyOf(weights, length * 2);
+                }
+                slot = length++;
+                ids[slot] = bookId;
+            }
+            if (weights[slot] == 0) {
+                live++;
+            }
+            weights[slot] = weight;
+            //    a book below the best ones that stays below them leaves them as they are
+            if (top != null && (rankKey(bookId, weight) < topFloor || top.length < TOP_SIZE || contains(top, bookId))) {
+                top = null;
+            }
+            if (length - sorted > Math.max(16, sorted >> 3)) {
+                merge();
+            }
+        }
+
+        //    true when no book is left, so the term can be dropped
+        synchronized boolean remove(int bookId) {
+            int slot = find(bookId);
+            if (slot >= 0 && weights[slot] != 0) {
+                weights[slot] = 0;
+                live--;
+                if (top != null && contains(top, bookId)) {
+                    top = null;
+                }
+            }
+            return live == 0;
+        }
+
+        synchronized int size() {
+            return live;
+        }
+
+        synchronized List<Integer> top(int limit) {
+            if (top == null || (top.length < limit && top.length < live)) {
+                merge();
+                int size = Math.max(limit, TOP_SIZE);
+                long[] keys = new long[live];
+                for (int i = 0; i < live; i++) {
+                    keys[i] = rankKey(ids[i], weights[i]);
+                }
+                Arrays.sort(keys);
+                top = new int[Math.min(size, live)];
+                for (int i = 0; i < top.length; i++) {
+                    top[i] = (int) keys[i];
+                }
+                topFloor = top.length > 0 ? keys[top.length - 1] : Long.MIN_VALUE;
+            }
+            Integer[] best = new Integer[Math.min(limit, top.length)];
+            for (int i = 0; i < best.length; i++) {
+                best[i] = top[i];
+            }
+            return List.of(best);
+        }
+
+        synchronized Candidates candidates(float idf) {
+            merge();
+            Candidates candidates = new Candidates(Arrays.copyOf(ids, live), new float[live]);
+            for (int i = 0; i < live; i++) {
+                candidates.scores[i] = weights[i] * idf;
+            }
+            return candidates;
+        }
+
+        //    keeps the candidates this term also matches, adding its score
+        synchronized void intersect(Candidates candidates, float idf) {
+            merge();
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < candidates.size; i++) {
+                int slot = Arrays.binarySearch(ids, from, live, candidates.ids[i]);
+                if (slot >= 0) {
+                    candidates.ids[kept] = candidates.ids[i];
+                    candidates.scores[kept++] = candidates.scores[i] + weights[slot] * idf;
+                    from = slot + 1;
+                } else {
+                    from = -slot - 1;
+                }
+            }
+            candidates.size = kept;
+        }
+
+        private int find(int bookId) {
+            int slot = Arrays.binarySearch(ids, 0, sorted, bookId);
+            if (slot >= 0) {
+                return slot;
+            }
+            for (int i = sorted; i < length; i++) {
+                if (ids[i] == bookId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        //    sorts the tail into the sorted part and drops removed books
+        private void merge() {
+            if (sorted == length && live == length) {
+                return;
+            }
+            long[] tail = new long[length - sorted];
+            for (int i = sorted; i < length; i++) {
+                tail[i - sorted] = ((long) ids[i] << 32) | (Float.floatToIntBits(weights[i]) & 0xffffffffL);
+            }
+            Arrays.sort(tail);
+            int capacity = Math.max(4, live + (live >> 1));
+            int[] mergedIds = new int[capacity];
+            float[] mergedWeights = new float[capacity];
+            int merged = 0;
+            int i = 0;
+            int j = 0;
+            while (i < sorted || j < tail.length) {
+                int id;
+                float weight;
+                if (j == tail.length || (i < sorted && ids[i] < (int) (tail[j] >> 32))) {
+                    id = ids[i];
+                    weight = weights[i++];
+                } else {
+                    id = (int) (tail[j] >> 32);
+                    weight = Float.intBitsToFloat((int) tail[j++]);
+                }
+                if (weight != 0) {
+                    mergedIds[merged] = id;
+                    mergedWeights[merged++] = weight;
+                }
+            }
+            ids = mergedIds;
+            weights = mergedWeights;
+            sorted = length = merged;
+        }
+
+        private static boolean contains(int[] bookIds, int bookId) {
+            for (int id : bookIds) {
+                if (id == bookId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    //    books matching every term so far, ascending by id, with their summed scores
+    private static final class Candidates {
+
+        private final int[] ids;
+
+        private final float[] scores;
+
+        private int size;
+
+        Candidates(int[] ids, float[] scores) {
+            this.ids = ids;
+            this.scores = scores;
+            this.size = ids.length;
+        }
+
+        List<Integer> best(int limit) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = rankKey(ids[i], scores[i]);
+            }
+            return rankedIds(keys, size, limit);
+        }
+    }
+}
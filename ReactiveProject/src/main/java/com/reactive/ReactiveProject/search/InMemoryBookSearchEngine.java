@@ -0,0 +1,129 @@
+package com.reactive.ReactiveProject.search;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ranks in the JVM, then loads only the requested page of books by id
+@Component
+@ConditionalOnProperty(name = "books.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryBookSearchEngine implements BookSearchEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryBookSearchEngine.class);
+
+    private final BookSearchIndex searchIndex = new BookSearchIndex();
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Value("${books.changes.enabled:true}")
+    private boolean changesEnabled;
+
+    //    ids written on this node while a rebuild runs; the rebuild's older copy of them is not indexed
+    private volatile Map<Integer, Boolean> writtenDuringRebuild;
+
+    //    with the change feed, BookCacheCoherence builds the index once it knows the seq to replay from
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (changesEnabled) {
+            return;
+        }
+        rebuild().subscribe(done -> {
+        }, error -> log.warn("Search index build failed", error));
+    }
+
+    @Override
+    public Mono<Void> rebuild() {
+        return Mono.defer(() -> {
+            Map<Integer, Boolean> written = new ConcurrentHashMap<>();
+            writtenDuringRebuild = written;
+            Set<Integer> missing = new HashSet<>(searchIndex.bookIds());
+            return Flux.defer(() -> bookRepository.findAll())
+                    .doOnNext(book -> {
+                        missing.remove(book.getBookId());
+                        unlessWritten(written, book.getBookId(), () -> searchIndex.index(book));
+                    })
+                    .count()
+                    .doOnNext(count -> {
+                        missing.forEach(bookId -> unlessWritten(written, bookId, () -> searchIndex.remove(bookId)));
+                        log.info("Search index built from {} books", count);
+                    })
+                    .doFinally(signal -> writtenDuringRebuild = null)
+                    .then();
+        });
+    }
+
+    //    atomic with write(), so a write landing mid-check is never overtaken by the rebuild
+    private static void unlessWritten(Map<Integer, Boolean> written, int bookId, Runnable update) {
+        written.compute(bookId, (id, marked) -> {
+            if (marked == null) {
+                update.run();
+            }
+            return marked;
+        });
+    }
+
+    private void write(int bookId, Runnable update) {
+        Map<Integer, Boolean> written = writtenDuringRebuild;
+        if (written == null) {
+            update.run();
+            return;
+        }
+        written.compute(bookId, (id, marked) -> {
+            update.run();
+            return Boolean.TRUE;
+        });
+    }
+
+    @Override
+    public Flux<Book> search(String query, int page, int size, Set<BookField> fields) {
+        //    in long, so a page far past the ranking is simply empty rather than a negative offset
+        long offset = (long) page * size;
+        if (page < 0 || size <= 0 || offset >= Integer.MAX_VALUE) {
+            return Flux.empty();
+        }
+        List<Integer> ranked = searchIndex.search(query, (int) Math.min(offset + size, Integer.MAX_VALUE));
+        if (ranked.size() <= offset) {
+            return Flux.empty();
+        }
+        List<Integer> bookIds = ranked.subList((int) offset, ranked.size());
+        return bookRepository.findAllByIds(bookIds, fields)
+                .collectMap(Book::getBookId)
+                .flatMapIterable(books -> bookIds.stream()
+                        .map(books::get)
+                        .filter(Objects::nonNull)
+                        .toList());
+    }
+
+    @Override
+    public boolean indexesLocally() {
+        return true;
+    }
+
+    @Override
+    public void index(Book book) {
+        write(book.getBookId(), () -> searchIndex.index(book));
+    }
+
+    @Override
+    public void remove(int bookId) {
+        write(bookId, () -> searchIndex.remove(bookId));
+    }
+}
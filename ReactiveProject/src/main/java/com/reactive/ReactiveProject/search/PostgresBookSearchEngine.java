@@ -0,0 +1,26 @@
+package com.reactive.ReactiveProject.search;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Set;
+
+// pushes search down to Postgres full-text search, for nodes that cannot hold the catalog in memory;
+// the search_vector column and its GIN index come from migration V3
+@Component
+@ConditionalOnProperty(name = "books.search.engine", havingValue = "postgres")
+public class PostgresBookSearchEngine implements BookSearchEngine {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Override
+    public Flux<Book> search(String query, int page, int size, Set<BookField> fields) {
+        return bookRepository.fullTextSearch(query, size, (long) page * size, fields);
+    }
+}
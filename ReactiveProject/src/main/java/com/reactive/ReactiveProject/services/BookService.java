@@ -1,27 +1,57 @@
 package com.reactive.ReactiveProject.services;
 
+import com.reactive.ReactiveProject.dto.BatchChunkResult;
+import com.reactive.ReactiveProject.dto.BookLookupResult;
+import com.reactive.ReactiveProject.dto.BookPage;
+import com.reactive.ReactiveProject.dto.BulkDeleteResult;
 import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
+
 public interface BookService {
     public Mono<Book> create(Book book);
 
+    public Flux<BatchChunkResult> createAll(Flux<Book> books);
+
     public Flux<Book> getAll();
 
+    public Mono<BookPage> getPage(int afterId, int limit, Set<BookField> fields);
+
+    public Flux<Book> stream(int afterId, int limit, Set<BookField> fields);
+
     public Mono<Book> get(int bookId);
 
+    public Mono<Integer> getVersion(int bookId);
+
+    public Flux<BookLookupResult> getAll(List<Integer> bookIds);
+
     public Mono<Book> update(Book book,int bookId);
 
-    public Mono<Void> delete(int bookId);
+    public Mono<Book> update(Book book, int bookId, int version);
+
+    public Mono<Boolean> delete(int bookId);
+
+    public Mono<BulkDeleteResult> deleteAll(List<Integer> bookIds);
 
     public Flux<Book> search(String query);
 
+    public Flux<Book> search(String query, int page, int size, Set<BookField> fields);
+
     public Flux<Book> findByAuthor(String author);
 
+    public Flux<Book> findByAuthor(String author, boolean ignoreCase, Set<BookField> fields);
+
     public Flux<Book> findByNameAndAuthor(String name, String author);
+
+    public Flux<Book> findByNameAndAuthor(String name, String author, Set<BookField> fields);
     public Mono<Book> partialUpdate(Book book, int bookId);
 
+    public Mono<Book> partialUpdate(Book book, int bookId, int version);
+
 
 
 }
@@ -1,82 +1,284 @@
 package com.reactive.ReactiveProject.services.impl;
 
+import com.reactive.ReactiveProject.cache.BookCache;
+import com.reactive.ReactiveProject.cache.BookLoader;
+import com.reactive.ReactiveProject.dto.BatchChunkResult;
+import com.reactive.ReactiveProject.dto.BookLookupResult;
+import com.reactive.ReactiveProject.dto.BookPage;
+import com.reactive.ReactiveProject.dto.BulkDeleteResult;
 import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
 import com.reactive.ReactiveProject.repositories.BookRepository;
+import com.reactive.ReactiveProject.search.BookSearchEngine;
 import com.reactive.ReactiveProject.services.BookService;
+import com.reactive.ReactiveProject.snapshot.BookSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
+
 @Service
 public class BookServiceImpl implements BookService {
 
     @Autowired
     private BookRepository bookRepository;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private BookLoader bookLoader;
+
+    @Autowired
+    private BookSearchEngine searchEngine;
+
+    //    present with books.snapshot.enabled=true
+    @Autowired(required = false)
+    private BookSnapshot snapshot;
+
+    @Value("${books.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${books.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${books.multi-get.max-ids:1000}")
+    private int maxGetIds;
+
+    @Value("${books.delete.max-ids:10000}")
+    private int maxDeleteIds;
+
+    @Value("${books.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${books.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${books.stream.max-size:100000}")
+    private int maxStreamSize;
+
+    @Value("${books.search.default-page-size:20}")
+    private int defaultSearchPageSize;
+
+    @Value("${books.search.max-page-size:100}")
+    private int maxSearchPageSize;
+
+    @Value("${books.search.max-results:1000}")
+    private int maxSearchResults;
+
     @Override
     public Mono<Book> create(Book book) {
-        Mono<Book> createdBook = bookRepository.save(book);
+        //    a version sent in the body would make save() an update of an existing row
+        if (book != null) {
+            book.setVersion(null);
+        }
+        Mono<Book> createdBook = bookRepository.save(book)
+                .doOnNext(this::written);
         return createdBook;
 
     }
 
+    @Override
+    public Flux<BatchChunkResult> createAll(Flux<Book> books) {
+        return books.buffer(batchChunkSize)
+                .index()
+                .concatMap(chunk -> insertChunk(chunk.getT1().intValue(), chunk.getT2()));
+    }
+
+    //    a failed chunk is rolled back and reported; later chunks are still inserted
+    private Mono<BatchChunkResult> insertChunk(int chunk, List<Book> books) {
+        int offset = chunk * batchChunkSize;
+        return bookRepository.insertAll(books)
+                .collectList()
+                .map(bookIds -> {
+                    for (int i = 0; i < bookIds.size(); i++) {
+                        Book book = books.get(i);
+                        book.setBookId(bookIds.get(i));
+                        book.setVersion(0);
+                        written(book);
+                    }
+                    return BatchChunkResult.inserted(chunk, offset, bookIds);
+                })
+                .onErrorResume(error -> Mono.just(BatchChunkResult.failed(chunk, offset, books.size(), error.getMessage())));
+    }
+
     @Override
     public Flux<Book> getAll() {
         return bookRepository.findAll();
     }
 
+    @Override
+    public Mono<BookPage> getPage(int afterId, int limit, Set<BookField> fields) {
+        int pageSize = limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+        //    one extra row tells whether another page follows
+        Flux<Book> books = fields == null
+                ? bookRepository.findPage(afterId, pageSize + 1)
+                : bookRepository.findPage(afterId, pageSize + 1, fields);
+        return books
+                .collectList()
+                .map(page -> page.size() > pageSize
+                        ? new BookPage(page.subList(0, pageSize), true)
+                        : new BookPage(page, false));
+    }
+
+    @Override
+    public Flux<Book> stream(int afterId, int limit, Set<BookField> fields) {
+        int streamSize = limit <= 0 ? maxStreamSize : Math.min(limit, maxStreamSize);
+        //    rows are pulled from the database cursor as the client consumes them
+        return fields == null
+                ? bookRepository.findPage(afterId, streamSize)
+                : bookRepository.findPage(afterId, streamSize, fields);
+    }
+
     @Override
     public Mono<Book> get(int bookId) {
-        Mono<Book> item = bookRepository.findById(bookId);
+        //    concurrent misses for the same id share one query, with or without the cache in front
+        Mono<Book> item = cacheEnabled ? bookCache.get(bookId, this::load) : load(bookId);
         return item;
     }
 
     @Override
-    public Mono<Book> update(Book book, int bookId) {
-        Mono<Book> oldBook = bookRepository.findById(bookId);
-        return oldBook.flatMap(book1 -> {
-            book1.setName(book.getName());
-            book1.setPublisher(book.getPublisher());
-            book1.setAuthor(book.getAuthor());
-            book1.setDescription(book.getDescription());
-            return bookRepository.save(book1);
+    public Mono<Integer> getVersion(int bookId) {
+        //    a cached book answers without a query; otherwise only book_id and version are read
+        return Mono.defer(() -> {
+            Book cached = cacheEnabled ? bookCache.getIfPresent(bookId) : null;
+            return cached != null && cached.getVersion() != null
+                    ? Mono.just(cached.getVersion())
+                    : bookRepository.findAllByIds(List.of(bookId), BookField.VERSIONS).next().mapNotNull(Book::getVersion);
         });
     }
 
+    private Mono<Book> load(int bookId) {
+        return snapshot != null ? snapshot.get(bookId, bookLoader::load) : bookLoader.load(bookId);
+    }
+
+    @Override
+    public Flux<BookLookupResult> getAll(List<Integer> bookIds) {
+        if (bookIds.size() > maxGetIds) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxGetIds + " ids can be requested at once"));
+        }
+        //    one query for the distinct ids, answered in request order with misses marked
+        return bookRepository.findAllByIds(bookIds.stream().distinct().toList())
+                .collectMap(Book::getBookId)
+                .flatMapIterable(books -> bookIds.stream()
+                        .map(bookId -> books.containsKey(bookId)
+                                ? BookLookupResult.found(books.get(bookId))
+                                : BookLookupResult.missing(bookId))
+                        .toList());
+    }
+
+    @Override
+    public Mono<Book> update(Book book, int bookId) {
+        return bookRepository.updateReturning(bookId, book)
+                .doOnNext(this::written);
+    }
+
+    @Override
+    public Mono<Book> update(Book book, int bookId, int version) {
+        return bookRepository.updateReturning(bookId, version, book)
+                .switchIfEmpty(preconditionFailed(bookId, version))
+                .doOnNext(this::written);
+    }
+
     @Override
-    public Mono<Void> delete(int bookId) {
-        return bookRepository.findById(bookId)
-                .flatMap(bookRepository::delete);
+    public Mono<Boolean> delete(int bookId) {
+        return bookRepository.deleteByBookId(bookId)
+                .map(rows -> rows > 0)
+                .doOnNext(found -> deleted(bookId));
+    }
+
+    @Override
+    public Mono<BulkDeleteResult> deleteAll(List<Integer> bookIds) {
+        if (bookIds.size() > maxDeleteIds) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxDeleteIds + " ids can be deleted per request"));
+        }
+        List<Integer> distinctIds = bookIds.stream().distinct().toList();
+        return bookRepository.deleteAllByIds(distinctIds)
+                .doOnNext(rows -> distinctIds.forEach(this::deleted))
+                .map(rows -> new BulkDeleteResult(distinctIds.size(), rows));
     }
 
     @Override
     public Flux<Book> search(String query) {
-        return null;
+        return search(query, 0, defaultSearchPageSize, null);
+    }
+
+    @Override
+    public Flux<Book> search(String query, int page, int size, Set<BookField> fields) {
+        int pageSize = size <= 0 ? defaultSearchPageSize : Math.min(size, maxSearchPageSize);
+        //    pages past max-results are empty so one broad query cannot walk the whole ranking
+        if (query == null || query.isBlank() || page < 0 || ((long) page + 1) * pageSize > maxSearchResults) {
+            return Flux.empty();
+        }
+        return searchEngine.search(query, page, pageSize, fields == null ? BookField.ALL : fields);
     }
     public Flux<Book> findByAuthor(String author) {
+        return findByAuthor(author, false, null);
+    }
+    public Flux<Book> findByAuthor(String author, boolean ignoreCase, Set<BookField> fields) {
+        if (fields != null) {
+            return bookRepository.findByAuthor(author, ignoreCase, fields);
+        }
+        if (ignoreCase) {
+            //    served by the upper(author) expression index
+            return bookRepository.findByAuthorIgnoreCase(author);
+        }
+        if (snapshot != null && snapshot.isCurrent()) {
+            return snapshot.findByAuthor(author, bookRepository::findById);
+        }
         return bookRepository.findByAuthor(author);
     }
     public Flux<Book> findByNameAndAuthor(String name, String author) {
         return bookRepository.findByNameAndAuthor(name, author);
     }
+    public Flux<Book> findByNameAndAuthor(String name, String author, Set<BookField> fields) {
+        return fields == null
+                ? bookRepository.findByNameAndAuthor(name, author)
+                : bookRepository.findByNameAndAuthor(name, author, fields);
+    }
     public Mono<Book> partialUpdate(Book book, int bookId) {
-        return bookRepository.findById(bookId)
-                .flatMap(existingBook -> {
-                    if (book.getName() != null) {
-                        existingBook.setName(book.getName());
-                    }
-                    if (book.getDescription() != null) {
-                        existingBook.setDescription(book.getDescription());
-                    }
-                    if (book.getPublisher() != null) {
-                        existingBook.setPublisher(book.getPublisher());
-                    }
-                    if (book.getAuthor() != null) {
-                        existingBook.setAuthor(book.getAuthor());
-                    }
-                    return bookRepository.save(existingBook);
-                })
-                .switchIfEmpty(Mono.empty());
+        //    only the non-null fields are written, so concurrent patches of different fields both survive
+        return bookRepository.partialUpdateReturning(bookId, book)
+                .doOnNext(this::written);
+    }
+    public Mono<Book> partialUpdate(Book book, int bookId, int version) {
+        return bookRepository.partialUpdateReturning(bookId, version, book)
+                .switchIfEmpty(preconditionFailed(bookId, version))
+                .doOnNext(this::written);
+    }
+
+    //    a conditional write that matched no row: 412 when the book has moved on, empty when it does not exist
+    private Mono<Book> preconditionFailed(int bookId, int version) {
+        return bookRepository.findAllByIds(List.of(bookId), BookField.VERSIONS)
+                .next()
+                .flatMap(current -> Mono.error(new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                        "Book " + bookId + " is at version " + current.getVersion() + ", not " + version)));
+    }
+
+    private void written(Book book) {
+        bookLoader.invalidate(book.getBookId());
+        bookCache.put(book);
+        searchEngine.index(book);
+        if (snapshot != null) {
+            snapshot.put(book);
+        }
+    }
+
+    private void deleted(int bookId) {
+        bookLoader.invalidate(bookId);
+        bookCache.invalidate(bookId);
+        searchEngine.remove(bookId);
+        if (snapshot != null) {
+            snapshot.remove(bookId);
+        }
     }
     }
 
@@ -0,0 +1,222 @@
+package com.reactive.ReactiveProject.snapshot;
+
+import com.reactive.ReactiveProject.changes.BookChangeFeed;
+import com.reactive.ReactiveProject.dto.BookChange;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookIndex;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+// Optional read tier under the book cache, kept in a memory-mapped BookSnapshotFile so a large catalog costs
+// page cache instead of heap. A restarted node maps the file it left behind rather than re-reading book_details:
+// writes made here are applied by BookServiceImpl, and writes made elsewhere (or while this node was down)
+// are replayed from book_change_log starting at the seq stored in the file. BookCacheCoherence follows the feed
+// for it and applies each change here before dropping the book from the cache, so the cache never reloads a book
+// from a snapshot that has not caught up. Reads only use the snapshot while isCurrent(); otherwise callers fall
+// back to the database.
+@Component
+@ConditionalOnProperty(name = "books.snapshot.enabled", havingValue = "true")
+public class BookSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSnapshot.class);
+
+    private static final DataSize MIN_SEGMENT_SIZE = DataSize.ofMegabytes(1);
+
+    private final BookSnapshotFile file;
+
+    //    heap index over the mapped records, rebuilt from the file on open
+    private final BookIndex<String> byAuthor = new BookIndex<>();
+
+    private volatile boolean current;
+
+    //    seq of the newest change logged when the feed was last resumed; current once it has been applied
+    private volatile long target = -1;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectProvider<BookChangeFeed> changeFeed;
+
+    private Disposable subscription;
+
+    public BookSnapshot(@Value("${books.snapshot.path:data/books-snapshot}") Path path,
+                        @Value("${books.snapshot.segment-size:64MB}") DataSize segmentSize,
+                        MeterRegistry meterRegistry) throws IOException {
+        int segmentBytes = (int) Math.min(Integer.MAX_VALUE, Math.max(segmentSize.toBytes(), MIN_SEGMENT_SIZE.toBytes()));
+        BookSnapshotFile opened = BookSnapshotFile.open(path, segmentBytes);
+        if (!opened.isComplete()) {
+            opened.close();
+            opened = BookSnapshotFile.create(path, segmentBytes);
+        } else if (opened.garbageBytes() > opened.liveBytes() && opened.garbageBytes() > opened.segmentSize()) {
+            log.info("Compacting book snapshot at {}: {} live bytes, {} garbage bytes", path,
+                    opened.liveBytes(), opened.garbageBytes());
+            opened = opened.compact();
+        }
+        this.file = opened;
+        BookSnapshotFile mapped = opened;
+        mapped.forEachBookId(bookId -> byAuthor.add(mapped.author(bookId), bookId));
+        Gauge.builder("books.snapshot.current", this, snapshot -> snapshot.current ? 1 : 0)
+                .description("Whether reads are served from the memory-mapped book snapshot")
+                .register(meterRegistry);
+        Gauge.builder("books.snapshot.bytes", this, snapshot -> snapshot.file.liveBytes())
+                .description("Bytes of live book records in the snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (changeFeed.getIfAvailable() != null) {
+            return;
+        }
+        //    without the change feed only this node's writes reach the snapshot, so it suits a single node
+        subscription = (file.isComplete() ? Mono.<Void>empty() : populate(0))
+                .subscribe(done -> {
+                }, error -> log.warn("Book snapshot load failed", error), () -> current = true);
+    }
+
+    //    called while the change feed is not being followed, as changes are then missed
+    public void suspend() {
+        current = false;
+    }
+
+    //    seq the feed has to be followed from for the snapshot to serve reads once it has applied every change
+    //    logged up to target. A file whose seq has been pruned from book_change_log is reloaded instead, as it
+    //    cannot replay what it missed
+    public Mono<Long> resume(long target) {
+        BookChangeFeed feed = changeFeed.getObject();
+        return (file.isComplete() ? feed.retains(file.lastSeq()) : Mono.just(false))
+                .flatMap(replayable -> replayable ? Mono.<Void>empty() : populate(target))
+                .then(Mono.fromSupplier(() -> {
+                    this.target = target;
+                    long since = file.lastSeq();
+                    if (since == target) {
+                        current = true;
+                    }
+                    return since;
+                }));
+    }
+
+    //    full load from the table; changes after seq are replayed afterwards, so none made during the load are lost.
+    //    Books the file still holds that the table no longer has are dropped at the end
+    private Mono<Void> populate(long seq) {
+        log.info("Loading book snapshot from the database");
+        BitSet missing = new BitSet();
+        file.forEachBookId(missing::set);
+        return bookRepository.findAll()
+                .doOnNext(book -> {
+                    put(book);
+                    missing.clear(book.getBookId());
+                })
+                .count()
+                .doOnNext(count -> {
+                    missing.stream().forEach(this::remove);
+                    synchronized (this) {
+                        file.setLastSeq(seq);
+                        file.markComplete();
+                        file.force();
+                    }
+                    log.info("Book snapshot loaded with {} books", count);
+                })
+                .then();
+    }
+
+    //    books holds the rows read for the batch after its changes were logged, and a book missing from them has
+    //    been deleted. The feed hands the target out after every change before it, so reaching it means catching up
+    public void apply(List<BookChange> batch, Map<Integer, Book> books) {
+        Set<Integer> bookIds = new LinkedHashSet<>();
+        batch.forEach(change -> bookIds.add(change.bookId()));
+        for (int bookId : bookIds) {
+            Book book = books.get(bookId);
+            if (book != null) {
+                put(book);
+            } else {
+                remove(bookId);
+            }
+        }
+        synchronized (this) {
+            file.setLastSeq(batch.get(batch.size() - 1).seq());
+        }
+        if (batch.stream().anyMatch(change -> change.seq() == target)) {
+            current = true;
+        }
+    }
+
+    public boolean isCurrent() {
+        return current;
+    }
+
+    //    a current snapshot holds every book, so a miss here is a miss in the table; books stored without
+    //    their description (too large for a segment) are read through the loader
+    public Mono<Book> get(int bookId, Function<Integer, Mono<Book>> loader) {
+        if (!current) {
+            return loader.apply(bookId);
+        }
+        Book book = file.get(bookId);
+        if (book != null) {
+            return Mono.just(book);
+        }
+        return file.isPartial(bookId) ? loader.apply(bookId) : Mono.empty();
+    }
+
+    public Flux<Book> findByAuthor(String author, Function<Integer, Mono<Book>> loader) {
+        int[] bookIds = byAuthor.get(author);
+        return Flux.range(0, bookIds.length)
+                .concatMap(i -> get(bookIds[i], loader))
+                .filter(book -> Objects.equals(book.getAuthor(), author));
+    }
+
+    public synchronized void put(Book book) {
+        try {
+            String previousAuthor = file.author(book.getBookId());
+            file.put(book);
+            if (!Objects.equals(previousAuthor, book.getAuthor())) {
+                byAuthor.remove(previousAuthor, book.getBookId());
+            }
+            byAuthor.add(book.getAuthor(), book.getBookId());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write book " + book.getBookId() + " to the snapshot", e);
+        }
+    }
+
+    public synchronized void remove(int bookId) {
+        byAuthor.remove(file.author(bookId), bookId);
+        file.remove(bookId);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws IOException {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        current = false;
+        file.close();
+    }
+}
@@ -0,0 +1,376 @@
+package com.reactive.ReactiveProject.snapshot;
+
+import com.reactive.ReactiveProject.entities.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Memory-mapped book store in two node-local files. books.data is a header followed by append-only records
+// [bookId][length][flags][version][name][book_desc][publisher][author], each string a byte length (-1 for null)
+// and UTF-8 bytes. books.index holds one long per book id: the data offset of the book's latest record, 0
+// if there is none. Both files grow in fixed-size mapped segments, and a record never spans two.
+// Writes must be serialized by the caller. Reads take no locks: an index slot is published with a release
+// store only once its record is complete, and read with an acquire load.
+final class BookSnapshotFile implements Closeable {
+
+    static final String DATA_FILE = "books.data";
+
+    static final String INDEX_FILE = "books.index";
+
+    private static final int MAGIC = 0x424b5331;
+
+    private static final int VERSION = 2;
+
+    private static final int MAGIC_AT = 0;
+    private static final int VERSION_AT = 4;
+    private static final int COMPLETE_AT = 8;
+    private static final int SEGMENT_SIZE_AT = 12;
+    private static final int LAST_SEQ_AT = 16;
+    private static final int END_AT = 24;
+    private static final int GARBAGE_AT = 32;
+    private static final int HEADER_SIZE = 64;
+
+    private static final int RECORD_HEADER_SIZE = 13;
+
+    //    where the book's version sits in a record; -1 stands for a book stored without one
+    private static final int BOOK_VERSION_AT = 9;
+
+    //    set on a record stored without its description because the full record would not fit in a segment
+    private static final byte PARTIAL = 1;
+
+    private static final int INDEX_SEGMENT_ENTRIES = 1 << 20;
+
+    private static final long INDEX_SEGMENT_SIZE = (long) INDEX_SEGMENT_ENTRIES * Long.BYTES;
+
+    private static final VarHandle OFFSETS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final FileChannel dataChannel;
+
+    private final FileChannel indexChannel;
+
+    private volatile MappedByteBuffer[] dataSegments;
+
+    private volatile MappedByteBuffer[] indexSegments;
+
+    private long end;
+
+    private long garbage;
+
+    private BookSnapshotFile(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.dataChannel = FileChannel.open(directory.resolve(DATA_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.indexChannel = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer header = dataChannel.size() >= HEADER_SIZE
+                ? dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                : null;
+        if (header != null && header.getInt(MAGIC_AT) == MAGIC && header.getInt(VERSION_AT) == VERSION) {
+            //    an existing file keeps the segment size it was written with
+            this.segmentSize = header.getInt(SEGMENT_SIZE_AT);
+        } else {
+            this.segmentSize = segmentSize;
+            dataChannel.truncate(0);
+            indexChannel.truncate(0);
+        }
+        this.dataSegments = map(dataChannel, Math.max(1, segments(dataChannel.size(), this.segmentSize)), this.segmentSize);
+        this.indexSegments = map(indexChannel, segments(indexChannel.size(), INDEX_SEGMENT_SIZE), INDEX_SEGMENT_SIZE);
+        MappedByteBuffer first = dataSegments[0];
+        if (first.getInt(MAGIC_AT) != MAGIC) {
+            first.putInt(MAGIC_AT, MAGIC);
+            first.putInt(VERSION_AT, VERSION);
+            first.putInt(COMPLETE_AT, 0);
+            first.putInt(SEGMENT_SIZE_AT, this.segmentSize);
+            first.putLong(LAST_SEQ_AT, 0);
+            first.putLong(END_AT, HEADER_SIZE);
+            first.putLong(GARBAGE_AT, 0);
+        }
+        this.end = first.getLong(END_AT);
+        this.garbage = first.getLong(GARBAGE_AT);
+    }
+
+    static BookSnapshotFile open(Path directory, int segmentSize) throws IOException {
+        return new BookSnapshotFile(directory, segmentSize);
+    }
+
+    //    discards whatever is in the directory and starts an empty, incomplete snapshot
+    static BookSnapshotFile create(Path directory, int segmentSize) throws IOException {
+        Files.deleteIfExists(directory.resolve(DATA_FILE));
+        Files.deleteIfExists(directory.resolve(INDEX_FILE));
+        return new BookSnapshotFile(directory, segmentSize);
+    }
+
+    //    true once a full load from the table has finished; an incomplete file is never served
+    boolean isComplete() {
+        return dataSegments[0].getInt(COMPLETE_AT) == 1;
+    }
+
+    void markComplete() {
+        dataSegments[0].putInt(COMPLETE_AT, 1);
+    }
+
+    //    seq of the last book_change_log entry reflected in the file
+    long lastSeq() {
+        return dataSegments[0].getLong(LAST_SEQ_AT);
+    }
+
+    void setLastSeq(long seq) {
+        dataSegments[0].putLong(LAST_SEQ_AT, seq);
+    }
+
+    long garbageBytes() {
+        return garbage;
+    }
+
+    long liveBytes() {
+        return end - HEADER_SIZE - garbage;
+    }
+
+    int segmentSize() {
+        return segmentSize;
+    }
+
+    //    null when the book is not stored, or stored without its description (see isPartial)
+    Book get(int bookId) {
+        long offset = offset(bookId);
+        if (offset == 0) {
+            return null;
+        }
+        ByteBuffer segment = dataSegments[(int) (offset / segmentSize)];
+        int position = (int) (offset % segmentSize);
+        if (segment.getInt(position) != bookId || (segment.get(position + 8) & PARTIAL) != 0) {
+            return null;
+        }
+        int[] cursor = {position + RECORD_HEADER_SIZE};
+        Book book = new Book(bookId, readString(segment, cursor), readString(segment, cursor),
+                readString(segment, cursor), readString(segment, cursor));
+        int version = segment.getInt(position + BOOK_VERSION_AT);
+        book.setVersion(version < 0 ? null : version);
+        return book;
+    }
+
+    boolean isPartial(int bookId) {
+        long offset = offset(bookId);
+        if (offset == 0) {
+            return false;
+        }
+        int position = (int) (offset % segmentSize);
+        return (dataSegments[(int) (offset / segmentSize)].get(position + 8) & PARTIAL) != 0;
+    }
+
+    //    the author of a stored book, partial or not; used to rebuild the author index on open
+    String author(int bookId) {
+        long offset = offset(bookId);
+        if (offset == 0) {
+            return null;
+        }
+        ByteBuffer segment = dataSegments[(int) (offset / segmentSize)];
+        int[] cursor = {(int) (offset % segmentSize) + RECORD_HEADER_SIZE};
+        for (int skip = 0; skip < 3; skip++) {
+            int length = segment.getInt(cursor[0]);
+            cursor[0] += Integer.BYTES + Math.max(length, 0);
+        }
+        return readString(segment, cursor);
+    }
+
+    void put(Book book) throws IOException {
+        byte[] record = encode(book, false);
+        if (record.length > segmentSize - HEADER_SIZE) {
+            record = encode(book, true);
+        }
+        append(book.getBookId(), record);
+    }
+
+    void remove(int bookId) {
+        long previous = offset(bookId);
+        if (previous != 0) {
+            garbage += recordLength(previous);
+            setOffset(bookId, 0);
+            dataSegments[0].putLong(GARBAGE_AT, garbage);
+        }
+    }
+
+    //    every book id with a record, in id order
+    void forEachBookId(IntConsumer action) {
+        MappedByteBuffer[] segments = indexSegments;
+        for (int segment = 0; segment < segments.length; segment++) {
+            for (int entry = 0; entry < INDEX_SEGMENT_ENTRIES; entry++) {
+                if ((long) OFFSETS.getAcquire(segments[segment], entry * Long.BYTES) != 0) {
+                    action.accept(segment * INDEX_SEGMENT_ENTRIES + entry);
+                }
+            }
+        }
+    }
+
+    //    copies the live records into a fresh file and swaps it in; only while nothing else uses this one
+    BookSnapshotFile compact() throws IOException {
+        Path staging = directory.resolveSibling(directory.getFileName() + ".compact");
+        try (BookSnapshotFile compacted = create(staging, segmentSize)) {
+            forEachBookId(bookId -> {
+                long offset = offset(bookId);
+                ByteBuffer segment = dataSegments[(int) (offset / segmentSize)];
+                byte[] record = new byte[recordLength(offset)];
+                segment.get((int) (offset % segmentSize), record);
+                try {
+                    compacted.append(bookId, record);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            compacted.setLastSeq(lastSeq());
+            if (isComplete()) {
+                compacted.markComplete();
+            }
+            compacted.force();
+        }
+        close();
+        Files.move(staging.resolve(DATA_FILE), directory.resolve(DATA_FILE), StandardCopyOption.REPLACE_EXISTING);
+        Files.move(staging.resolve(INDEX_FILE), directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(staging);
+        return open(directory, segmentSize);
+    }
+
+    void force() {
+        for (MappedByteBuffer segment : dataSegments) {
+            segment.force();
+        }
+        for (MappedByteBuffer segment : indexSegments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        dataChannel.close();
+        indexChannel.close();
+    }
+
+    private void append(int bookId, byte[] record) throws IOException {
+        int position = (int) (end % segmentSize);
+        if (position + record.length > segmentSize) {
+            //    the tail of this segment stays unused
+            garbage += segmentSize - position;
+            end += segmentSize - position;
+            position = 0;
+        }
+        int segment = (int) (end / segmentSize);
+        if (segment >= dataSegments.length) {
+            dataSegments = grow(dataChannel, dataSegments, segment + 1, segmentSize);
+        }
+        dataSegments[segment].put(position, record);
+        long previous = offset(bookId);
+        if (previous != 0) {
+            garbage += recordLength(previous);
+        }
+        setOffset(bookId, end);
+        end += record.length;
+        dataSegments[0].putLong(END_AT, end);
+        dataSegments[0].putLong(GARBAGE_AT, garbage);
+    }
+
+    private long offset(int bookId) {
+        if (bookId <= 0) {
+            return 0;
+        }
+        MappedByteBuffer[] segments = indexSegments;
+        int segment = bookId / INDEX_SEGMENT_ENTRIES;
+        if (segment >= segments.length) {
+            return 0;
+        }
+        return (long) OFFSETS.getAcquire(segments[segment], (bookId % INDEX_SEGMENT_ENTRIES) * Long.BYTES);
+    }
+
+    private void setOffset(int bookId, long offset) {
+        if (bookId <= 0) {
+            throw new IllegalArgumentException("Book ids must be positive: " + bookId);
+        }
+        int segment = bookId / INDEX_SEGMENT_ENTRIES;
+        if (segment >= indexSegments.length) {
+            try {
+                indexSegments = grow(indexChannel, indexSegments, segment + 1, INDEX_SEGMENT_SIZE);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not grow " + INDEX_FILE, e);
+            }
+        }
+        OFFSETS.setRelease(indexSegments[segment], (bookId % INDEX_SEGMENT_ENTRIES) * Long.BYTES, offset);
+    }
+
+    private int recordLength(long offset) {
+        return dataSegments[(int) (offset / segmentSize)].getInt((int) (offset % segmentSize) + 4);
+    }
+
+    private static byte[] encode(Book book, boolean partial) {
+        byte[][] values = {
+                bytes(book.getName()),
+                partial ? null : bytes(book.getDescription()),
+                bytes(book.getPublisher()),
+                bytes(book.getAuthor())};
+        int length = RECORD_HEADER_SIZE;
+        for (byte[] value : values) {
+            length += Integer.BYTES + (value == null ? 0 : value.length);
+        }
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(book.getBookId()).putInt(length).put(partial ? PARTIAL : 0)
+                .putInt(book.getVersion() == null ? -1 : book.getVersion());
+        for (byte[] value : values) {
+            record.putInt(value == null ? -1 : value.length);
+            if (value != null) {
+                record.put(value);
+            }
+        }
+        return record.array();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer segment, int[] cursor) {
+        int length = segment.getInt(cursor[0]);
+        cursor[0] += Integer.BYTES;
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        segment.get(cursor[0], value);
+        cursor[0] += length;
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static int segments(long fileSize, long segmentSize) {
+        return (int) ((fileSize + segmentSize - 1) / segmentSize);
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, int count, long segmentSize) throws IOException {
+        return grow(channel, new MappedByteBuffer[0], count, segmentSize);
+    }
+
+    //    mapping past the end of the file extends it
+    private static MappedByteBuffer[] grow(FileChannel channel, MappedByteBuffer[] segments, int count,
+                                           long segmentSize) throws IOException {
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, count);
+        for (int i = segments.length; i < count; i++) {
+            grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * segmentSize, segmentSize);
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,7 @@
+create table if not exists book_details (
+    book_id   serial primary key,
+    name      varchar(255),
+    book_desc text,
+    publisher varchar(255),
+    author    varchar(255)
+);
@@ -0,0 +1,8 @@
+-- findByNameAndAuthor and getAllBooksByAuthor; the leading column also serves findByName
+create index if not exists book_details_name_author_idx on book_details (name, author);
+
+-- findByAuthor
+create index if not exists book_details_author_idx on book_details (author);
+
+-- findByPublisher
+create index if not exists book_details_publisher_idx on book_details (publisher);
@@ -0,0 +1,10 @@
+-- full-text search for books.search.engine=postgres, weighted name > author > publisher > description
+alter table book_details add column if not exists search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(author, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(publisher, '')), 'C') ||
+        setweight(to_tsvector('english', coalesce(book_desc, '')), 'D')
+    ) stored;
+
+create index if not exists book_details_search_vector_idx on book_details using gin (search_vector);
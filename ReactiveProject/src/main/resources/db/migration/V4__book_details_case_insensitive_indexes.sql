@@ -0,0 +1,4 @@
+-- derived IgnoreCase finders compare upper(column) = upper(:value)
+create index if not exists book_details_upper_name_idx on book_details (upper(name));
+
+create index if not exists book_details_upper_author_idx on book_details (upper(author));
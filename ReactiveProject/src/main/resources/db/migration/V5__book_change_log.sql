@@ -0,0 +1,25 @@
+-- every committed write to book_details, in sequence order, for clients resuming GET /books/changes
+create table if not exists book_change_log (
+    seq        bigserial primary key,
+    book_id    integer     not null,
+    operation  varchar(6)  not null,
+    changed_at timestamptz not null default now()
+);
+
+-- logs the change and notifies listeners in the writing transaction, so no write path can skip it
+create or replace function book_details_changed() returns trigger as $$
+declare
+    changed_id integer;
+    change_seq bigint;
+begin
+    changed_id := case when tg_op = 'DELETE' then old.book_id else new.book_id end;
+    insert into book_change_log (book_id, operation) values (changed_id, tg_op) returning seq into change_seq;
+    perform pg_notify('book_changes',
+            json_build_object('seq', change_seq, 'bookId', changed_id, 'operation', tg_op)::text);
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger book_details_changed
+    after insert or update or delete on book_details
+    for each row execute function book_details_changed();
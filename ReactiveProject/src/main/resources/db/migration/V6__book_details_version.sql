@@ -0,0 +1,15 @@
+-- optimistic concurrency and ETags: every row starts at version 0 and each update adds one
+alter table book_details add column if not exists version integer not null default 0;
+
+-- bumped by the database, so bulk statements and other nodes' writes change the ETag too; a write through
+-- Spring Data's @Version sets the same value itself and its "where version = :old" check still holds
+create or replace function book_details_next_version() returns trigger as $$
+begin
+    new.version := old.version + 1;
+    return new;
+end;
+$$ language plpgsql;
+
+create trigger book_details_next_version
+    before update on book_details
+    for each row execute function book_details_next_version();
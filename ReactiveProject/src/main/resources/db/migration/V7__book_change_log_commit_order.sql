@@ -0,0 +1,50 @@
+-- seqs are drawn before commit, so a transaction can take a lower seq and commit after a higher one; a client
+-- resuming after seq n would then miss it. Each change also records the id of its transaction, and
+-- BookChangeFeed hands changes out in (txid, seq) order, only up to the oldest transaction still running:
+-- every later commit sorts after what has been handed out. Writers never wait on one another for this.
+alter table book_change_log add column if not exists txid bigint not null default 0;
+alter table book_change_log alter column txid drop default;
+
+create index if not exists book_change_log_position on book_change_log (txid, seq);
+
+-- one insert per statement from its transition table, and one notification per transaction: Postgres folds
+-- identical notifications sent by the same transaction. The notification carries nothing but a wake-up;
+-- listeners read what changed from the log
+create or replace function book_details_changed() returns trigger as $$
+begin
+    insert into book_change_log (txid, book_id, operation)
+    select pg_current_xact_id()::text::bigint, book_id, tg_op from changed;
+    if found then
+        perform pg_notify('book_changes', '');
+    end if;
+    return null;
+end;
+$$ language plpgsql;
+
+drop trigger if exists book_details_changed on book_details;
+
+-- a trigger with a transition table can only fire on one kind of statement
+create trigger book_details_inserted
+    after insert on book_details
+    referencing new table as changed
+    for each statement execute function book_details_changed();
+
+create trigger book_details_updated
+    after update on book_details
+    referencing new table as changed
+    for each statement execute function book_details_changed();
+
+create trigger book_details_deleted
+    after delete on book_details
+    referencing old table as changed
+    for each statement execute function book_details_changed();
+
+-- BookChangeLogRetention deletes changes older than books.changes.retention from the front of the log and
+-- records the position of the last one it removed here; resuming from an older seq is refused with 410 Gone
+create table if not exists book_change_log_pruned (
+    id   boolean primary key default true check (id),
+    txid bigint  not null,
+    seq  bigint  not null
+);
+
+insert into book_change_log_pruned (txid, seq) values (0, 0) on conflict do nothing;
@@ -0,0 +1,140 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.cache.BookBatchLoader;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookBatchLoaderTest {
+
+    private BookRepository bookRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BookBatchLoader batchLoader;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = Mockito.mock(BookRepository.class);
+        Mockito.when(bookRepository.findAllByIds(Mockito.anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> bookIds = invocation.getArgument(0);
+            return Flux.fromIterable(bookIds)
+                    .filter(id -> id < 100)
+                    .map(id -> new Book(id, "Book " + id, "Description", "Publisher", "Author"));
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        batchLoader = new BookBatchLoader(bookRepository, 10, Duration.ofMillis(20), 2, 100, Duration.ofSeconds(5), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchLoader.close();
+    }
+
+    @Test
+    @DisplayName("Ids requested within the window are read with one query")
+    void batchingTest() {
+        StepVerifier.create(Flux.range(1, 5).flatMap(batchLoader::load))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        Mockito.verify(bookRepository, Mockito.times(1)).findAllByIds(Mockito.anyCollection());
+        assertEquals(5, meterRegistry.summary("books.loader.batch.size").totalAmount());
+    }
+
+    @Test
+    @DisplayName("Batches are capped at the maximum size and missing ids complete empty")
+    void batchSizeTest() {
+        StepVerifier.create(Flux.range(95, 10).flatMap(batchLoader::load).map(Book::getBookId).collectList())
+                .expectNextMatches(ids -> ids.size() == 5 && ids.containsAll(List.of(95, 96, 97, 98, 99)))
+                .verifyComplete();
+        StepVerifier.create(Flux.range(1, 25).flatMap(batchLoader::load))
+                .expectNextCount(25)
+                .verifyComplete();
+
+        assertEquals(4, meterRegistry.summary("books.loader.batch.size").count());
+        assertEquals(10, meterRegistry.summary("books.loader.batch.size").max());
+    }
+
+    @Test
+    @DisplayName("Slow batches with more loaders than concurrent batches queue up instead of overflowing")
+    void slowBatchTest() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        Mockito.when(bookRepository.findAllByIds(Mockito.anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> bookIds = invocation.getArgument(0);
+            return Flux.fromIterable(bookIds)
+                    .map(id -> new Book(id, "Book " + id, "Description", "Publisher", "Author"))
+                    .delaySubscription(Duration.ofMillis(50))
+                    .doOnSubscribe(subscription -> mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                    .doOnTerminate(running::decrementAndGet);
+        });
+
+        StepVerifier.create(Flux.range(1, 200).flatMap(id -> batchLoader.load(id), 200))
+                .expectNextCount(200)
+                .verifyComplete();
+
+        assertEquals(2, mostRunning.get());
+        assertEquals(200, meterRegistry.summary("books.loader.batch.size").totalAmount());
+    }
+
+    @Test
+    @DisplayName("A lone id is sent when its window closes even when the window is shorter than a load")
+    void loneIdTest() {
+        batchLoader.close();
+        batchLoader = new BookBatchLoader(bookRepository, 10, Duration.ofNanos(1), 2, 100, Duration.ofSeconds(5), meterRegistry);
+
+        for (int i = 0; i < 5000; i++) {
+            int bookId = i % 100;
+            StepVerifier.create(batchLoader.load(bookId))
+                    .expectNextMatches(book -> book.getBookId() == bookId)
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    @DisplayName("A failing repository fails its batch and later loads still complete")
+    void failedBatchTest() {
+        Mockito.when(bookRepository.findAllByIds(Mockito.anyCollection()))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(null)
+                .thenReturn(Flux.just(new Book(1, "Book 1", "Description", "Publisher", "Author")));
+
+        StepVerifier.create(batchLoader.load(1))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(batchLoader.load(1))
+                .expectError(NullPointerException.class)
+                .verify();
+        StepVerifier.create(batchLoader.load(1))
+                .expectNextMatches(book -> book.getBookId() == 1)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("A load that gets no answer times out instead of hanging")
+    void loadTimeoutTest() {
+        batchLoader.close();
+        batchLoader = new BookBatchLoader(bookRepository, 10, Duration.ofMillis(20), 2, 100, Duration.ofMillis(100), meterRegistry);
+        Mockito.when(bookRepository.findAllByIds(Mockito.anyCollection())).thenReturn(Flux.never());
+
+        StepVerifier.create(batchLoader.load(1))
+                .expectError(DataAccessResourceFailureException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,179 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.cache.BookCache;
+import com.reactive.ReactiveProject.cache.BookCacheCoherence;
+import com.reactive.ReactiveProject.cache.BookLoader;
+import com.reactive.ReactiveProject.changes.BookChangeFeed;
+import com.reactive.ReactiveProject.changes.BookChangeListener;
+import com.reactive.ReactiveProject.dto.BookChange;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import com.reactive.ReactiveProject.search.BookSearchEngine;
+import com.reactive.ReactiveProject.snapshot.BookSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookCacheCoherenceTest {
+
+    private BookCache bookCache;
+
+    private BookChangeFeed changeFeed;
+
+    private BookSearchEngine searchEngine;
+
+    private BookRepository bookRepository;
+
+    private BookLoader bookLoader;
+
+    private Sinks.Many<Boolean> listening;
+
+    private BookCacheCoherence coherence;
+
+    @BeforeEach
+    void setUp() {
+        bookCache = new BookCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        changeFeed = Mockito.mock(BookChangeFeed.class);
+        searchEngine = Mockito.mock(BookSearchEngine.class);
+        bookRepository = Mockito.mock(BookRepository.class);
+        bookLoader = Mockito.mock(BookLoader.class);
+        listening = Sinks.many().replay().latest();
+
+        BookChangeListener changeListener = Mockito.mock(BookChangeListener.class);
+        Mockito.when(changeListener.listeningStates()).thenReturn(listening.asFlux());
+        Mockito.when(searchEngine.rebuild()).thenReturn(Mono.empty());
+
+        coherence = new BookCacheCoherence(bookCache);
+        ReflectionTestUtils.setField(coherence, "changeListener", changeListener);
+        ReflectionTestUtils.setField(coherence, "changeFeed", changeFeed);
+        ReflectionTestUtils.setField(coherence, "searchEngine", searchEngine);
+        ReflectionTestUtils.setField(coherence, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(coherence, "bookLoader", bookLoader);
+        ReflectionTestUtils.setField(coherence, "applyBatchSize", 256);
+        ReflectionTestUtils.setField(coherence, "applyWindow", Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        coherence.stop();
+    }
+
+    @Test
+    @DisplayName("Changes are replayed from the seq read before the index was built, even across an early disconnect")
+    void replayFromStartTest() {
+        Mockito.when(changeFeed.latestSeq()).thenReturn(Mono.just(7L));
+        Mockito.when(changeFeed.changes(7L)).thenReturn(Flux.never());
+        Mockito.when(changeFeed.changes(8L)).thenReturn(Flux.never());
+
+        coherence.start();
+        listening.tryEmitNext(false);
+        assertFalse(bookCache.isCoherent());
+
+        listening.tryEmitNext(true);
+        Mockito.verify(searchEngine).rebuild();
+        Mockito.verify(changeFeed).changes(7L);
+        assertTrue(bookCache.isCoherent());
+
+        Mockito.when(changeFeed.changes(7L)).thenReturn(Flux.just(new BookChange(8, 1, "UPDATE")));
+        listening.tryEmitNext(false);
+        listening.tryEmitNext(true);
+        Mockito.verify(changeFeed, Mockito.times(2)).changes(7L);
+
+        listening.tryEmitNext(false);
+        listening.tryEmitNext(true);
+        Mockito.verify(changeFeed).changes(8L);
+        Mockito.verify(changeFeed, Mockito.never()).changes(Mockito.isNull());
+    }
+
+    @Test
+    @DisplayName("A pruned resume point rebuilds the search index and replays from the new seq")
+    void prunedResumeTest() {
+        Mockito.when(changeFeed.latestSeq()).thenReturn(Mono.just(7L), Mono.just(20L));
+        Mockito.when(changeFeed.changes(7L)).thenReturn(Flux.error(new ResponseStatusException(HttpStatus.GONE)));
+        Mockito.when(changeFeed.changes(20L)).thenReturn(Flux.never());
+
+        coherence.start();
+        listening.tryEmitNext(true);
+
+        Mockito.verify(searchEngine, Mockito.times(2)).rebuild();
+        Mockito.verify(changeFeed).changes(20L);
+        assertTrue(bookCache.isCoherent());
+    }
+
+    @Test
+    @DisplayName("A failed feed bypasses the cache until it is followed again from the last change applied")
+    void feedFailureTest() {
+        Mockito.when(changeFeed.latestSeq()).thenReturn(Mono.just(7L));
+        Mockito.when(changeFeed.changes(7L)).thenReturn(
+                Flux.concat(Flux.just(new BookChange(8, 1, "UPDATE")), Flux.error(new IllegalStateException("lost"))));
+        Mockito.when(changeFeed.changes(8L)).thenReturn(Flux.never());
+
+        coherence.start();
+        listening.tryEmitNext(true);
+
+        Mockito.verify(changeFeed, Mockito.timeout(5000)).changes(8L);
+        assertTrue(bookCache.isCoherent());
+    }
+
+    @Test
+    @DisplayName("A bulk write is applied with one query for the books it wrote")
+    void batchTest() {
+        Mockito.when(changeFeed.latestSeq()).thenReturn(Mono.just(7L));
+        Mockito.when(changeFeed.changes(7L)).thenReturn(Flux.concat(
+                Flux.just(new BookChange(8, 1, "UPDATE"), new BookChange(9, 2, "INSERT"),
+                        new BookChange(10, 3, "INSERT"), new BookChange(11, 3, "DELETE")),
+                Flux.never()));
+        Mockito.when(searchEngine.indexesLocally()).thenReturn(true);
+        Mockito.when(bookRepository.findAllByIds(List.of(1, 2))).thenReturn(Flux.just(
+                new Book(1, "Dune", "Description", "Publisher", "Author"),
+                new Book(2, "Emma", "Description", "Publisher", "Author")));
+
+        coherence.start();
+        listening.tryEmitNext(true);
+
+        Mockito.verify(searchEngine, Mockito.timeout(5000).times(2)).index(Mockito.any());
+        Mockito.verify(searchEngine).remove(3);
+        Mockito.verify(bookRepository).findAllByIds(List.of(1, 2));
+        Mockito.verify(bookRepository, Mockito.never()).findById(Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("The snapshot is brought up to date before the cache drops a changed book")
+    void snapshotFirstTest() {
+        BookSnapshot snapshot = Mockito.mock(BookSnapshot.class);
+        ReflectionTestUtils.setField(coherence, "snapshot", snapshot);
+        Book book = new Book(1, "Dune", "Description", "Publisher", "Author");
+        BookChange change = new BookChange(8, 1, "UPDATE");
+        Mockito.when(changeFeed.latestSeq()).thenReturn(Mono.just(8L));
+        Mockito.when(snapshot.resume(8L)).thenReturn(Mono.just(7L));
+        Mockito.when(changeFeed.changes(7L)).thenReturn(Flux.concat(Flux.just(change), Flux.never()));
+        Mockito.when(bookRepository.findAllByIds(List.of(1))).thenReturn(Flux.just(book));
+
+        coherence.start();
+        listening.tryEmitNext(true);
+
+        InOrder inOrder = Mockito.inOrder(snapshot, bookLoader);
+        inOrder.verify(snapshot, Mockito.timeout(5000)).apply(List.of(change), Map.of(1, book));
+        inOrder.verify(bookLoader).invalidate(1);
+
+        listening.tryEmitNext(false);
+        Mockito.verify(snapshot).suspend();
+    }
+}
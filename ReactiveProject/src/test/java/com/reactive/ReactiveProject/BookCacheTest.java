@@ -0,0 +1,95 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.cache.BookCache;
+import com.reactive.ReactiveProject.entities.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookCacheTest {
+
+    private BookCache bookCache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        bookCache = new BookCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+    }
+
+    private Mono<Book> load(int bookId) {
+        loads.incrementAndGet();
+        return Mono.just(new Book(bookId, "Book " + bookId, "Description", "Publisher", "Author"));
+    }
+
+    @Test
+    @DisplayName("Second read is served from the cache")
+    void readThroughTest() {
+        StepVerifier.create(bookCache.get(1, this::load))
+                .expectNextMatches(book -> book.getName().equals("Book 1"))
+                .verifyComplete();
+        StepVerifier.create(bookCache.get(1, this::load))
+                .expectNextMatches(book -> book.getName().equals("Book 1"))
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(1, bookCache.stats().hitCount());
+        assertEquals(1, bookCache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("Missing books are not cached")
+    void emptyResultTest() {
+        StepVerifier.create(bookCache.get(2, id -> Mono.empty()))
+                .verifyComplete();
+        StepVerifier.create(bookCache.get(2, this::load))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Writes replace and invalidate entries")
+    void writePathTest() {
+        bookCache.get(3, this::load).block();
+
+        bookCache.put(new Book(3, "Updated Book", "Description", "Publisher", "Author"));
+        StepVerifier.create(bookCache.get(3, this::load))
+                .expectNextMatches(book -> book.getName().equals("Updated Book"))
+                .verifyComplete();
+
+        bookCache.invalidate(3);
+        StepVerifier.create(bookCache.get(3, this::load))
+                .expectNextMatches(book -> book.getName().equals("Book 3"))
+                .verifyComplete();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("A write arriving after a newer one does not replace it")
+    void outOfOrderPutTest() {
+        Book newer = new Book(4, "Second Update", "Description", "Publisher", "Author");
+        newer.setVersion(2);
+        Book older = new Book(4, "First Update", "Description", "Publisher", "Author");
+        older.setVersion(1);
+
+        bookCache.put(newer);
+        bookCache.put(older);
+
+        StepVerifier.create(bookCache.get(4, this::load))
+                .expectNextMatches(book -> book.getName().equals("Second Update") && book.getVersion() == 2)
+                .verifyComplete();
+        assertEquals(0, loads.get());
+    }
+}
@@ -0,0 +1,194 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.changes.BookChangeFeed;
+import com.reactive.ReactiveProject.changes.BookChangeListener;
+import com.reactive.ReactiveProject.changes.BookChangeLogRetention;
+import com.reactive.ReactiveProject.config.R2dbcPoolConfig;
+import com.reactive.ReactiveProject.dto.BookChange;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.services.BookService;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Testcontainers
+class BookChangeFeedIntegrationTest {
+
+    static {
+        System.setProperty("testcontainers.ryuk.container.image", "testcontainers/ryuk:0.3.3");
+    }
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName("boot_work1")
+            .withUsername("postgres")
+            .withPassword("mysecretpassword");
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgreSQLContainer.getHost() + ":"
+                + postgreSQLContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/"
+                + postgreSQLContainer.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgreSQLContainer::getUsername);
+        registry.add("spring.r2dbc.password", postgreSQLContainer::getPassword);
+        registry.add("spring.flyway.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.flyway.user", postgreSQLContainer::getUsername);
+        registry.add("spring.flyway.password", postgreSQLContainer::getPassword);
+    }
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookChangeFeed changeFeed;
+
+    @Autowired
+    private BookChangeListener changeListener;
+
+    @Autowired
+    private BookChangeLogRetention retention;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private R2dbcProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        Flux.interval(Duration.ofMillis(50))
+                .filter(tick -> changeListener.isListening())
+                .blockFirst(Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("Writes are pushed to live subscribers")
+    void liveChangesTest() {
+        Book book = bookService.create(new Book(0, "Live Book", "Description", "Publisher", "Author")).block();
+
+        StepVerifier.create(changeFeed.changes(null).filter(change -> change.bookId() == book.getBookId()).take(2))
+                .then(() -> bookService.partialUpdate(patch("Renamed"), book.getBookId()).block())
+                .then(() -> bookService.delete(book.getBookId()).block())
+                .assertNext(change -> assertEquals("UPDATE", change.operation()))
+                .assertNext(change -> assertEquals("DELETE", change.operation()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("A client resuming from a seq receives the changes it missed, in order")
+    void resumeTest() {
+        long start = changeFeed.latestSeq().block();
+        Book book = bookService.create(new Book(0, "Missed Book", "Description", "Publisher", "Author")).block();
+        BookChange created = changeFeed.changes(start)
+                .filter(change -> change.bookId() == book.getBookId())
+                .blockFirst(Duration.ofSeconds(10));
+        assertEquals("INSERT", created.operation());
+
+        bookService.partialUpdate(patch("Renamed once"), book.getBookId()).block();
+        bookService.partialUpdate(patch("Renamed twice"), book.getBookId()).block();
+
+        StepVerifier.create(changeFeed.changes(created.seq()).take(3))
+                .then(() -> bookService.delete(book.getBookId()).block())
+                .assertNext(change -> assertEquals("UPDATE", change.operation()))
+                .assertNext(change -> assertEquals("UPDATE", change.operation()))
+                .assertNext(change -> assertEquals("DELETE", change.operation()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("No change is handed out while an older transaction could still commit before it")
+    void commitOrderTest() {
+        long start = changeFeed.latestSeq().block();
+        ConnectionFactory connections = R2dbcPoolConfig.unpooledConnectionFactory(properties);
+        Connection first = Mono.from(connections.create()).block();
+        Connection second = Mono.from(connections.create()).block();
+        int firstId;
+        int secondId;
+        try {
+            Mono.from(first.beginTransaction()).block();
+            firstId = insert(first, "Written first, committed last");
+            secondId = insert(second, "Written last, committed first");
+            assertEquals(start, changeFeed.latestSeq().block());
+            Mono.from(first.commitTransaction()).block();
+        } finally {
+            Mono.from(first.close()).block();
+            Mono.from(second.close()).block();
+        }
+
+        StepVerifier.create(changeFeed.changes(start)
+                        .map(BookChange::bookId)
+                        .filter(bookId -> bookId == firstId || bookId == secondId)
+                        .take(2))
+                .expectNext(firstId, secondId)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Resuming from a seq older than the retained log is refused with 410")
+    void prunedTest() {
+        Book book = bookService.create(new Book(0, "Pruned Book", "Description", "Publisher", "Author")).block();
+        long seq = insertSeq(book.getBookId());
+        databaseClient.sql("update book_change_log set changed_at = now() - interval '30 days' where seq <= :seq")
+                .bind("seq", seq)
+                .fetch()
+                .rowsUpdated()
+                .block();
+
+        assertTrue(retention.prune().block() > 0);
+
+        StepVerifier.create(changeFeed.changes(seq - 1))
+                .expectErrorMatches(error -> error instanceof ResponseStatusException status
+                        && status.getStatusCode() == HttpStatus.GONE)
+                .verify();
+        StepVerifier.create(changeFeed.changes(seq).filter(change -> change.bookId() == book.getBookId()).take(1))
+                .then(() -> bookService.delete(book.getBookId()).block())
+                .assertNext(change -> assertEquals("DELETE", change.operation()))
+                .verifyComplete();
+    }
+
+    private static int insert(Connection connection, String name) {
+        return Flux.from(connection.createStatement(
+                                "insert into book_details (name, book_desc, publisher, author) values ($1, 'Description', 'Publisher', 'Author')")
+                        .bind(0, name)
+                        .returnGeneratedValues("book_id")
+                        .execute())
+                .concatMap(result -> result.map((row, metadata) -> row.get("book_id", Integer.class)))
+                .blockLast();
+    }
+
+    private long insertSeq(int bookId) {
+        return databaseClient.sql("select seq from book_change_log where book_id = :bookId and operation = 'INSERT'")
+                .bind("bookId", bookId)
+                .map((row, metadata) -> row.get("seq", Long.class))
+                .one()
+                .block();
+    }
+
+    private static Book patch(String name) {
+        Book patch = new Book();
+        patch.setName(name);
+        return patch;
+    }
+}
@@ -1,5 +1,6 @@
 package com.reactive.ReactiveProject;
 
+import com.reactive.ReactiveProject.cache.BookCache;
 import com.reactive.ReactiveProject.entities.Book;
 import com.reactive.ReactiveProject.repositories.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,7 +18,12 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -42,8 +48,12 @@ public class BookControllerIntegrationTest {
     @MockBean
     private BookRepository bookRepository;
 
+    @Autowired
+    private BookCache bookCache;
+
     @BeforeEach
     void setUp() {
+        bookCache.invalidateAll();
         when(bookRepository.deleteAll()).thenReturn(Mono.empty());
     }
 
@@ -70,7 +80,7 @@ public class BookControllerIntegrationTest {
         Book book1 = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
         Book book2 = new Book(2, "Book 2", "Description 2", "Publisher 2", "Author 2");
 
-        when(bookRepository.findAll()).thenReturn(Flux.just(book1, book2));
+        when(bookRepository.findPage(anyInt(), anyInt())).thenReturn(Flux.just(book1, book2));
 
         webTestClient.get().uri("/books")
                 .exchange()
@@ -88,7 +98,7 @@ public class BookControllerIntegrationTest {
     void getBookByIdTest() {
         Book book = new Book(1, "Test Book", "Test Description", "Test Publisher", "Test Author");
 
-        when(bookRepository.findById(1)).thenReturn(Mono.just(book));
+        when(bookRepository.findAllByIds(List.of(1))).thenReturn(Flux.just(book));
 
         webTestClient.get().uri("/books/{id}", 1)
                 .exchange()
@@ -103,13 +113,10 @@ public class BookControllerIntegrationTest {
     @Test
     @DisplayName("Update Book")
     void updateBookTest() {
-        Book book = new Book(1, "Test Book", "Test Description", "Test Publisher", "Test Author");
-
-        when(bookRepository.findById(1)).thenReturn(Mono.just(book));
-        when(bookRepository.save(any(Book.class))).thenReturn(Mono.just(book));
-
         Book updatedBook = new Book(1, "Updated Book", "Updated Description", "Updated Publisher", "Updated Author");
 
+        when(bookRepository.updateReturning(eq(1), any(Book.class))).thenReturn(Mono.just(updatedBook));
+
         webTestClient.put().uri("/books/{id}", 1)
                 .body(Mono.just(updatedBook), Book.class)
                 .exchange()
@@ -125,8 +132,8 @@ public class BookControllerIntegrationTest {
     void deleteBookTest() {
         Book book = new Book(21, "Test Book", "Test Description", "Test Publisher", "Test Author");
 
-        when(bookRepository.findById(21)).thenReturn(Mono.just(book));
-        when(bookRepository.delete(any(Book.class))).thenReturn(Mono.empty());
+        when(bookRepository.findAllByIds(List.of(21))).thenReturn(Flux.just(book));
+        when(bookRepository.deleteByBookId(21)).thenReturn(Mono.just(1));
 
         // Check if the book exists before deleting
         webTestClient.get().uri("/books/{id}", 21)
@@ -135,7 +142,7 @@ public class BookControllerIntegrationTest {
 
         webTestClient.delete().uri("/books/{id}", 21)
                 .exchange()
-                .expectStatus().isOk()
+                .expectStatus().isNoContent()
                 .expectBody().isEmpty();
 
     }
@@ -167,6 +174,8 @@ public class BookControllerIntegrationTest {
                 .exchange()
                 .expectStatus().isOk();
 
+        when(bookRepository.findPage(anyInt(), anyInt())).thenReturn(Flux.just(book1, book2));
+
         webTestClient.get().uri("/books")
                 .exchange()
                 .expectStatus().isOk()
@@ -180,10 +189,9 @@ public class BookControllerIntegrationTest {
     @Test
     @DisplayName("Update book partially")
     void updateBookPartiallyTest() {
-        Book book = new Book(1, "Partial Update Book", "Description", "Publisher", "Author");
+        Book book = new Book(1, "Partially Updated Book", "Description", "Publisher", "Author");
 
-        when(bookRepository.findById(1)).thenReturn(Mono.just(book));
-        when(bookRepository.save(any(Book.class))).thenReturn(Mono.just(book));
+        when(bookRepository.partialUpdateReturning(eq(1), any(Book.class))).thenReturn(Mono.just(book));
 
         Book partialUpdateBook = new Book();
         partialUpdateBook.setName("Partially Updated Book");
@@ -191,7 +199,7 @@ public class BookControllerIntegrationTest {
         webTestClient.patch().uri("/books/{id}", 1)
                 .body(Mono.just(partialUpdateBook), Book.class)
                 .exchange()
-                .expectStatus().isNotFound()
+                .expectStatus().isOk()
                 .expectBody(Book.class)
                 .value(updatedBook -> {
                     assert updatedBook.getBookId() == 1;
@@ -202,6 +210,19 @@ public class BookControllerIntegrationTest {
                 });
     }
     @Test
+    @DisplayName("Update missing book partially")
+    void updateMissingBookPartiallyTest() {
+        when(bookRepository.partialUpdateReturning(eq(404), any(Book.class))).thenReturn(Mono.empty());
+
+        Book partialUpdateBook = new Book();
+        partialUpdateBook.setName("Partially Updated Book");
+
+        webTestClient.patch().uri("/books/{id}", 404)
+                .body(Mono.just(partialUpdateBook), Book.class)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+    @Test
     @DisplayName("Find Books by Author")
     void findBooksByAuthorTest() {
         Book book1 = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
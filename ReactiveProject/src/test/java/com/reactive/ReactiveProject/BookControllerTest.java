@@ -1,5 +1,6 @@
 package com.reactive.ReactiveProject;
 import com.reactive.ReactiveProject.controller.BookController;
+import com.reactive.ReactiveProject.dto.BookPage;
 import com.reactive.ReactiveProject.entities.Book;
 import com.reactive.ReactiveProject.services.BookService;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +13,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+
 import static org.mockito.Mockito.when;
 
 class BookControllerTest {
@@ -42,10 +45,11 @@ class BookControllerTest {
 
     @Test
     void testGetAllBooks() {
-        when(bookService.getAll()).thenReturn(Flux.just(book));
+        when(bookService.getPage(0, 0, null)).thenReturn(Mono.just(new BookPage(List.of(book), false)));
 
-        StepVerifier.create(bookController.getAll())
-                .expectNext(book)
+        StepVerifier.create(bookController.getAll(null, 0, null, null))
+                .expectNextMatches(response -> response.getBody().equals(List.of(book))
+                        && !response.getHeaders().containsKey(BookController.NEXT_CURSOR_HEADER))
                 .verifyComplete();
     }
 
@@ -54,8 +58,8 @@ class BookControllerTest {
         int bookId = 1;
         when(bookService.get(bookId)).thenReturn(Mono.just(book));
 
-        StepVerifier.create(bookController.get(bookId))
-                .expectNext(book)
+        StepVerifier.create(bookController.get(bookId, null))
+                .expectNextMatches(response -> response.getBody().equals(book))
                 .verifyComplete();
     }
 
@@ -65,17 +69,18 @@ class BookControllerTest {
         Book updatedBook = new Book(1, "Updated Title", "Updated Author", "Updated Publisher", "Updated Description");
         when(bookService.update(updatedBook, bookId)).thenReturn(Mono.just(updatedBook));
 
-        StepVerifier.create(bookController.update(updatedBook, bookId))
-                .expectNext(updatedBook)
+        StepVerifier.create(bookController.update(updatedBook, bookId, null))
+                .expectNextMatches(response -> response.getBody().equals(updatedBook))
                 .verifyComplete();
     }
 
     @Test
     void testDeleteBook() {
         int bookId = 1;
-        when(bookService.delete(bookId)).thenReturn(Mono.empty());
+        when(bookService.delete(bookId)).thenReturn(Mono.just(true));
 
         StepVerifier.create(bookController.delete(bookId))
+                .expectNextMatches(response -> response.getStatusCode().value() == 204)
                 .verifyComplete();
     }
 }
\ No newline at end of file
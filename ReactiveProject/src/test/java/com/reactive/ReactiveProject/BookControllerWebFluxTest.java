@@ -0,0 +1,372 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.controller.BookController;
+import com.reactive.ReactiveProject.controller.BookCursor;
+import com.reactive.ReactiveProject.dto.BookLookupResult;
+import com.reactive.ReactiveProject.dto.BookPage;
+import com.reactive.ReactiveProject.dto.BulkDeleteResult;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
+import com.reactive.ReactiveProject.services.BookService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(BookController.class)
+class BookControllerWebFluxTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private BookService bookService;
+
+    @Test
+    @DisplayName("Add Books")
+    public void addBookTest() {
+        Book book = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+        Mono<Book> bookMono = Mono.just(book);
+        when(bookService.create(any(Book.class))).thenReturn(bookMono);
+
+        webTestClient.post().uri("/books")
+                .body(Mono.just(book), Book.class)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName("RetrieveAllBooks")
+    public void getBooksTest() {
+        Book book1 = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+        Book book2 = new Book(2, "Book 2", "Description 2", "Publisher 2", "Author 2");
+        when(bookService.getPage(anyInt(), anyInt(), isNull())).thenReturn(Mono.just(new BookPage(List.of(book1, book2), false)));
+
+        Flux<Book> responseBody = webTestClient.get().uri("/books")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Book.class)
+                .getResponseBody();
+
+        StepVerifier.create(responseBody)
+                .expectSubscription()
+                .consumeNextWith(book -> {
+                    assertEquals(book1.getBookId(), book.getBookId());
+                    assertEquals(book1.getName(), book.getName());
+                    assertEquals(book1.getDescription(), book.getDescription());
+                    assertEquals(book1.getPublisher(), book.getPublisher());
+                    assertEquals(book1.getAuthor(), book.getAuthor());
+                })
+                .consumeNextWith(book -> {
+                    assertEquals(book2.getBookId(), book.getBookId());
+                    assertEquals(book2.getName(), book.getName());
+                    assertEquals(book2.getDescription(), book.getDescription());
+                    assertEquals(book2.getPublisher(), book.getPublisher());
+                    assertEquals(book2.getAuthor(), book.getAuthor());
+                })
+                .verifyComplete();
+    }
+
+
+    @Test
+    @DisplayName("RetrieveBooksPageByPage")
+    public void getBooksPagedTest() {
+        Book book1 = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+        Book book2 = new Book(2, "Book 2", "Description 2", "Publisher 2", "Author 2");
+        when(bookService.getPage(0, 1, null)).thenReturn(Mono.just(new BookPage(List.of(book1), true)));
+        when(bookService.getPage(eq(1), anyInt(), isNull())).thenReturn(Mono.just(new BookPage(List.of(book2), false)));
+
+        String cursor = webTestClient.get().uri("/books?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(BookController.NEXT_CURSOR_HEADER)
+                .returnResult(Book.class)
+                .getResponseHeaders()
+                .getFirst(BookController.NEXT_CURSOR_HEADER);
+        assertEquals(1, BookCursor.decode(cursor));
+
+        webTestClient.get().uri("/books?after={after}&limit=1", cursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(BookController.NEXT_CURSOR_HEADER)
+                .expectBodyList(Book.class)
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("RetrieveSelectedFields")
+    public void getBooksFieldsTest() {
+        Book book = new Book();
+        book.setBookId(1);
+        book.setName("Book 1");
+        book.setAuthor("Author 1");
+        book.setVersion(2);
+        when(bookService.getPage(0, 0, EnumSet.of(BookField.BOOK_ID, BookField.NAME, BookField.AUTHOR, BookField.VERSION)))
+                .thenReturn(Mono.just(new BookPage(List.of(book), false)));
+
+        webTestClient.get().uri("/books?fields=name,author")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].bookId").isEqualTo(1)
+                .jsonPath("$[0].name").isEqualTo("Book 1")
+                .jsonPath("$[0].author").isEqualTo("Author 1")
+                .jsonPath("$[0].version").isEqualTo(2)
+                .jsonPath("$[0].description").doesNotExist()
+                .jsonPath("$[0].publisher").doesNotExist();
+
+        webTestClient.get().uri("/books?fields=name,price")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("RejectInvalidCursor")
+    public void getBooksInvalidCursorTest() {
+        webTestClient.get().uri("/books?after=not-a-cursor")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("StreamBooksAsNdjson")
+    public void streamBooksTest() {
+        Book book1 = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+        Book book2 = new Book(2, "Book 2", "Description 2", "Publisher 2", "Author 2");
+        when(bookService.stream(0, 0, null)).thenReturn(Flux.just(book1, book2));
+
+        Flux<Book> responseBody = webTestClient.get().uri("/books")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Book.class)
+                .getResponseBody();
+
+        StepVerifier.create(responseBody)
+                .expectNextMatches(book -> book.getBookId() == 1)
+                .expectNextMatches(book -> book.getBookId() == 2)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("StreamBooksAsServerSentEvents")
+    public void streamBookEventsTest() {
+        Book book1 = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+        Book book2 = new Book(2, "Book 2", "Description 2", "Publisher 2", "Author 2");
+        when(bookService.stream(1, 0, null)).thenReturn(Flux.just(book2));
+        when(bookService.stream(0, 0, null)).thenReturn(Flux.just(book1, book2));
+
+        Flux<ServerSentEvent<Book>> events = webTestClient.get().uri("/books")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", BookCursor.encode(1))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<Book>>() { })
+                .getResponseBody();
+
+        StepVerifier.create(events)
+                .expectNextMatches(event -> event.data().getBookId() == 2
+                        && BookCursor.decode(event.id()) == 2)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("RetrieveBooksByID")
+    public void getBookTest() {
+        Book expectedBook = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+        Mono<Book> bookMono = Mono.just(expectedBook);
+        when(bookService.get(any(Integer.class))).thenReturn(bookMono);
+
+        Flux<Book> responseBody = webTestClient.get().uri("/books/{bookId}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Book.class)
+                .getResponseBody();
+
+        StepVerifier.create(responseBody)
+                .expectSubscription()
+                .consumeNextWith(book -> {
+                    assertEquals(expectedBook.getBookId(), book.getBookId());
+                    assertEquals(expectedBook.getName(), book.getName());
+                    assertEquals(expectedBook.getDescription(), book.getDescription());
+                    assertEquals(expectedBook.getPublisher(), book.getPublisher());
+                    assertEquals(expectedBook.getAuthor(), book.getAuthor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("UpdateBooksByID")
+    public void updateBookTest() {
+        Book updatedBook = new Book(1, "Updated Book 1", "Updated Description 1", "Updated Publisher 1", "Updated Author 1");
+        Mono<Book> bookMono = Mono.just(updatedBook);
+        when(bookService.update(any(Book.class), any(Integer.class))).thenReturn(bookMono);
+
+        webTestClient.put().uri("/books/{bookId}", 1)
+                .body(Mono.just(updatedBook), Book.class)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName("RevalidateWithETags")
+    public void notModifiedTest() {
+        Book book = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+        book.setVersion(3);
+        Book versionOnly = new Book();
+        versionOnly.setBookId(1);
+        versionOnly.setVersion(3);
+        when(bookService.get(1)).thenReturn(Mono.just(book));
+        when(bookService.getVersion(1)).thenReturn(Mono.just(3));
+        when(bookService.getPage(0, 0, null)).thenReturn(Mono.just(new BookPage(List.of(book), false)));
+        when(bookService.getPage(0, 0, BookField.VERSIONS)).thenReturn(Mono.just(new BookPage(List.of(versionOnly), false)));
+
+        webTestClient.get().uri("/books/{bookId}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+        webTestClient.get().uri("/books/{bookId}", 1)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        webTestClient.get().uri("/books/{bookId}", 1)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                .exchange()
+                .expectStatus().isOk();
+        verify(bookService, times(2)).get(1);
+
+        String pageTag = webTestClient.get().uri("/books")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Book.class)
+                .getResponseHeaders()
+                .getETag();
+        webTestClient.get().uri("/books")
+                .header(HttpHeaders.IF_NONE_MATCH, pageTag)
+                .exchange()
+                .expectStatus().isNotModified();
+        verify(bookService, times(1)).getPage(0, 0, null);
+    }
+
+    @Test
+    @DisplayName("ConditionalUpdate")
+    public void ifMatchTest() {
+        Book book = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+        book.setVersion(4);
+        when(bookService.update(any(Book.class), eq(1), eq(3))).thenReturn(Mono.just(book));
+        when(bookService.partialUpdate(any(Book.class), eq(1), eq(2))).thenReturn(
+                Mono.error(new ResponseStatusException(HttpStatus.PRECONDITION_FAILED)));
+
+        webTestClient.put().uri("/books/{bookId}", 1)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .body(Mono.just(book), Book.class)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"");
+        webTestClient.patch().uri("/books/{bookId}", 1)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .body(Mono.just(book), Book.class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verify(bookService, never()).update(any(Book.class), anyInt());
+    }
+
+    @Test
+    @DisplayName("DeleteBook")
+    public void deleteBookTest() {
+        given(bookService.delete(any(Integer.class))).willReturn(Mono.just(true));
+
+        webTestClient.delete().uri("/books/{bookId}", 1)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    @DisplayName("DeleteMissingBook")
+    public void deleteMissingBookTest() {
+        given(bookService.delete(any(Integer.class))).willReturn(Mono.just(false));
+
+        webTestClient.delete().uri("/books/{bookId}", 404)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("DeleteBooksInBulk")
+    public void deleteBooksTest() {
+        given(bookService.deleteAll(List.of(1, 2, 3))).willReturn(Mono.just(new BulkDeleteResult(3, 3)));
+
+        webTestClient.delete().uri("/books?ids=1,2,3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BulkDeleteResult.class)
+                .isEqualTo(new BulkDeleteResult(3, 3));
+    }
+
+    @Test
+    @DisplayName("RetrieveBooksByIds")
+    public void getBooksByIdsTest() {
+        Book book = new Book(2, "Book 2", "Description 2", "Publisher 2", "Author 2");
+        given(bookService.getAll(List.of(2, 7))).willReturn(Flux.just(
+                BookLookupResult.found(book), BookLookupResult.missing(7)));
+
+        webTestClient.get().uri("/books?ids=2,7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookLookupResult.class)
+                .value(results -> {
+                    assertEquals(2, results.size());
+                    assertEquals(2, results.get(0).bookId());
+                    assert results.get(0).found();
+                    assertEquals("Book 2", results.get(0).book().getName());
+                    assertEquals(BookLookupResult.missing(7), results.get(1));
+                });
+
+        webTestClient.post().uri("/books/lookup")
+                .bodyValue(List.of(2, 7))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookLookupResult.class)
+                .hasSize(2);
+    }
+
+    @Test
+    @DisplayName("DatabaseUnavailable")
+    public void databaseUnavailableTest() {
+        given(bookService.get(1)).willReturn(Mono.error(
+                new DataAccessResourceFailureException("Failed to obtain R2DBC Connection")));
+
+        webTestClient.get().uri("/books/{bid}", 1)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.controller.BookRSocketController;
+import com.reactive.ReactiveProject.dto.BookStreamRequest;
+import com.reactive.ReactiveProject.dto.BookUpsertResult;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.services.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+class BookRSocketControllerTest {
+
+    @Mock
+    private BookService bookService;
+
+    @InjectMocks
+    private BookRSocketController bookRSocketController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(bookRSocketController, "upsertConcurrency", 4);
+    }
+
+    @Test
+    @DisplayName("Streams pass the requester's demand through")
+    void streamTest() {
+        Book book1 = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+        Book book2 = new Book(2, "Book 2", "Description 2", "Publisher 2", "Author 1");
+        when(bookService.stream(0, 10, null)).thenReturn(Flux.just(book1, book2));
+
+        StepVerifier.create(bookRSocketController.getAll(new BookStreamRequest(0, 10)), 1)
+                .expectNext(book1)
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenRequest(1)
+                .expectNext(book2)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Upserts answer every book in input order, failures included")
+    void upsertTest() {
+        Book created = new Book(0, "New", "Description", "Publisher", "Author");
+        Book updated = new Book(1, "Updated", "Description", "Publisher", "Author");
+        Book stale = new Book(2, "Stale", "Description", "Publisher", "Author");
+        stale.setVersion(3);
+        Book missing = new Book(9, "Missing", "Description", "Publisher", "Author");
+        Book saved = new Book(7, "New", "Description", "Publisher", "Author");
+        when(bookService.create(created)).thenReturn(Mono.just(saved).delayElement(Duration.ofMillis(50)));
+        when(bookService.update(updated, 1)).thenReturn(Mono.just(updated));
+        when(bookService.update(stale, 2, 3)).thenReturn(Mono.error(
+                new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Book 2 is at version 4, not 3")));
+        when(bookService.update(missing, 9)).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookRSocketController.upsert(Flux.just(created, updated, stale, missing)))
+                .expectNext(BookUpsertResult.written(0, saved))
+                .expectNext(BookUpsertResult.written(1, updated))
+                .expectNext(BookUpsertResult.failed(2, 2, "Book 2 is at version 4, not 3"))
+                .expectNext(BookUpsertResult.failed(3, 9, "Book 9 does not exist"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Writes of the same book id are applied in input order")
+    void upsertSameIdTest() {
+        Book first = new Book(5, "First", "Description", "Publisher", "Author");
+        Book second = new Book(5, "Second", "Description", "Publisher", "Author");
+        List<String> applied = new CopyOnWriteArrayList<>();
+        when(bookService.update(first, 5)).thenReturn(Mono.delay(Duration.ofMillis(100))
+                .then(Mono.fromCallable(() -> {
+                    applied.add("First");
+                    return first;
+                })));
+        when(bookService.update(second, 5)).thenReturn(Mono.fromCallable(() -> {
+            applied.add("Second");
+            return second;
+        }));
+
+        StepVerifier.create(bookRSocketController.upsert(Flux.just(first, second)))
+                .expectNext(BookUpsertResult.written(0, first))
+                .expectNext(BookUpsertResult.written(1, second))
+                .verifyComplete();
+        assertEquals(List.of("First", "Second"), applied);
+    }
+}
@@ -0,0 +1,77 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.search.BookSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new BookSearchIndex();
+        searchIndex.index(new Book(1, "Reactive Spring", "Building reactive services", "Manning", "Josh Long"));
+        searchIndex.index(new Book(2, "Spring in Action", "Covers spring boot and reactive programming", "Manning", "Craig Walls"));
+        searchIndex.index(new Book(3, "Java Concurrency in Practice", "Threads and locks", "Addison-Wesley", "Brian Goetz"));
+    }
+
+    @Test
+    @DisplayName("Matches in the name rank above matches in the description")
+    void rankingTest() {
+        assertEquals(List.of(1, 2), searchIndex.search("reactive", 10));
+    }
+
+    @Test
+    @DisplayName("Every query term must match")
+    void conjunctionTest() {
+        assertEquals(List.of(2), searchIndex.search("Spring walls", 10));
+        assertTrue(searchIndex.search("spring goetz", 10).isEmpty());
+        assertTrue(searchIndex.search("the", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Result count is limited")
+    void limitTest() {
+        assertEquals(List.of(2), searchIndex.search("spring", 1));
+    }
+
+    @Test
+    @DisplayName("Updates and deletes are reflected immediately")
+    void incrementalUpdateTest() {
+        searchIndex.index(new Book(3, "Java Concurrency in Practice", "Reactive streams", "Addison-Wesley", "Brian Goetz"));
+        assertEquals(List.of(1, 2, 3), searchIndex.search("reactive", 10));
+        assertTrue(searchIndex.search("locks", 10).isEmpty());
+
+        searchIndex.remove(1);
+        assertEquals(List.of(2, 3), searchIndex.search("reactive", 10));
+        assertEquals(2, searchIndex.size());
+    }
+
+    @Test
+    @DisplayName("Large postings stay ranked through updates and deletes")
+    void largePostingTest() {
+        for (int bookId = 10; bookId < 20_010; bookId++) {
+            searchIndex.index(new Book(bookId, "Catalog " + bookId, "Common", "Publisher", "Author"));
+        }
+        assertEquals(List.of(10, 11, 12), searchIndex.search("catalog", 3));
+
+        searchIndex.index(new Book(20_005, "Catalog Catalogue", "Common", "Publisher", "Catalog"));
+        searchIndex.remove(10);
+        IntStream.range(100, 20_000).forEach(searchIndex::remove);
+
+        assertEquals(List.of(20_005, 11, 12), searchIndex.search("catalog", 3));
+        assertEquals(List.of(20_005, 11), searchIndex.search("catalog common", 100).subList(0, 2));
+        assertEquals(99, searchIndex.search("catalog common", 1000).size());
+        assertTrue(searchIndex.search("catalog 150", 10).isEmpty());
+        assertEquals(List.of(20_009), searchIndex.search("catalog 20009", 10));
+    }
+}
@@ -1,21 +1,34 @@
 package com.reactive.ReactiveProject;
 
+import com.reactive.ReactiveProject.cache.BookCache;
+import com.reactive.ReactiveProject.dto.BatchChunkResult;
+import com.reactive.ReactiveProject.dto.BookLookupResult;
+import com.reactive.ReactiveProject.dto.BulkDeleteResult;
 import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
 import com.reactive.ReactiveProject.repositories.BookRepository;
 import com.reactive.ReactiveProject.services.BookService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 
-    @SpringBootTest
+    //    BookRepository is mocked, so nothing may reach for the database at startup
+    @SpringBootTest(properties = "spring.flyway.enabled=false")
     public class BookServiceImplTest {
 
         @Autowired
@@ -24,6 +37,14 @@ import static org.mockito.ArgumentMatchers.anyInt;
         @MockBean
         private BookRepository bookRepository;
 
+        @Autowired
+        private BookCache bookCache;
+
+        @BeforeEach
+        void setUp() {
+            bookCache.invalidateAll();
+        }
+
         @Test
         void testCreateBook() {
             Book book = new Book(1, "Test Book", "Test Description", "Test Publisher", "Test Author");
@@ -37,6 +58,32 @@ import static org.mockito.ArgumentMatchers.anyInt;
                     .verifyComplete();
         }
 
+        @Test
+        void testCreateBooksInBatch() {
+            Book book1 = new Book(0, "Batch Book 1", "Description 1", "Publisher 1", "Author 1");
+            Book book2 = new Book(0, "Batch Book 2", "Description 2", "Publisher 2", "Author 2");
+
+            Mockito.when(bookRepository.insertAll(Mockito.anyList())).thenReturn(Flux.just(41, 42));
+
+            StepVerifier.create(bookService.createAll(Flux.just(book1, book2)))
+                    .expectNext(BatchChunkResult.inserted(0, 0, List.of(41, 42)))
+                    .verifyComplete();
+            assert book1.getBookId() == 41;
+            assert book2.getBookId() == 42;
+        }
+
+        @Test
+        void testCreateBooksInBatch_FailedChunk() {
+            Book book = new Book(0, "Batch Book", "Description", "Publisher", "Author");
+
+            Mockito.when(bookRepository.insertAll(Mockito.anyList()))
+                    .thenReturn(Flux.error(new IllegalStateException("insert failed")));
+
+            StepVerifier.create(bookService.createAll(Flux.just(book)))
+                    .expectNext(BatchChunkResult.failed(0, 0, 1, "insert failed"))
+                    .verifyComplete();
+        }
+
         @Test
         void testGetAllBooks() {
             Book book1 = new Book(1, "Test Book 1", "Test Description 1", "Test Publisher 1", "Test Author 1");
@@ -56,7 +103,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
         void testGetBookById() {
             Book book = new Book(1, "Test Book", "Test Description", "Test Publisher", "Test Author");
 
-            Mockito.when(bookRepository.findById(anyInt())).thenReturn(Mono.just(book));
+            Mockito.when(bookRepository.findAllByIds(Mockito.anyCollection())).thenReturn(Flux.just(book));
 
             Mono<Book> foundBook = bookService.get(1);
 
@@ -70,8 +117,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
             Book existingBook = new Book(1, "Test Book", "Test Description", "Test Publisher", "Test Author");
             Book updatedBook = new Book(1, "Updated Book", "Updated Description", "Updated Publisher", "Updated Author");
 
-            Mockito.when(bookRepository.findById(anyInt())).thenReturn(Mono.just(existingBook));
-            Mockito.when(bookRepository.save(any(Book.class))).thenReturn(Mono.just(updatedBook));
+            Mockito.when(bookRepository.updateReturning(anyInt(), any(Book.class))).thenReturn(Mono.just(updatedBook));
 
             Mono<Book> updatedMono = bookService.update(updatedBook, 1);
 
@@ -81,15 +127,51 @@ import static org.mockito.ArgumentMatchers.anyInt;
         }
 
         @Test
-        void testDeleteBook() {
-            Book book = new Book(1, "Test Book", "Test Description", "Test Publisher", "Test Author");
+        void testUpdateBook_VersionConflict() {
+            Book book = new Book(1, "Updated Book", "Updated Description", "Updated Publisher", "Updated Author");
+            Book current = new Book();
+            current.setBookId(1);
+            current.setVersion(3);
+
+            Mockito.when(bookRepository.updateReturning(1, 2, book)).thenReturn(Mono.empty());
+            Mockito.when(bookRepository.findAllByIds(List.of(1), BookField.VERSIONS)).thenReturn(Flux.just(current));
+            Mockito.when(bookRepository.partialUpdateReturning(2, 2, book)).thenReturn(Mono.empty());
+            Mockito.when(bookRepository.findAllByIds(List.of(2), BookField.VERSIONS)).thenReturn(Flux.empty());
+
+            StepVerifier.create(bookService.update(book, 1, 2))
+                    .expectErrorMatches(error -> error instanceof ResponseStatusException e
+                            && e.getStatusCode() == HttpStatus.PRECONDITION_FAILED)
+                    .verify();
+            StepVerifier.create(bookService.partialUpdate(book, 2, 2))
+                    .verifyComplete();
+        }
 
-            Mockito.when(bookRepository.findById(anyInt())).thenReturn(Mono.just(book));
-            Mockito.when(bookRepository.delete(book)).thenReturn(Mono.empty());
+        @Test
+        void testDeleteBook() {
+            Mockito.when(bookRepository.deleteByBookId(anyInt())).thenReturn(Mono.just(1));
 
-            Mono<Void> deleted = bookService.delete(1);
+            Mono<Boolean> deleted = bookService.delete(1);
 
             StepVerifier.create(deleted)
+                    .expectNext(true)
+                    .verifyComplete();
+        }
+
+        @Test
+        void testDeleteBook_InvalidId() {
+            Mockito.when(bookRepository.deleteByBookId(anyInt())).thenReturn(Mono.just(0));
+
+            StepVerifier.create(bookService.delete(-1))
+                    .expectNext(false)
+                    .verifyComplete();
+        }
+
+        @Test
+        void testDeleteBooksInBulk() {
+            Mockito.when(bookRepository.deleteAllByIds(List.of(1, 2, 3))).thenReturn(Mono.just(2L));
+
+            StepVerifier.create(bookService.deleteAll(List.of(1, 2, 3, 3)))
+                    .expectNext(new BulkDeleteResult(3, 2))
                     .verifyComplete();
         }
         @Test
@@ -106,8 +188,8 @@ import static org.mockito.ArgumentMatchers.anyInt;
 
         @Test
         void testGetBookById_InvalidId() {
-            Mockito.when(bookRepository.findById(anyInt()))
-                    .thenReturn(Mono.empty());
+            Mockito.when(bookRepository.findAllByIds(Mockito.anyCollection()))
+                    .thenReturn(Flux.empty());
 
             Mono<Book> foundBook = bookService.get(-1);
 
@@ -116,9 +198,22 @@ import static org.mockito.ArgumentMatchers.anyInt;
                     .verifyComplete();
         }
 
+        @Test
+        void testPartialUpdateBook() {
+            Book patch = new Book();
+            patch.setName("Patched Book");
+            Book patchedBook = new Book(1, "Patched Book", "Test Description", "Test Publisher", "Test Author");
+
+            Mockito.when(bookRepository.partialUpdateReturning(1, patch)).thenReturn(Mono.just(patchedBook));
+
+            StepVerifier.create(bookService.partialUpdate(patch, 1))
+                    .expectNext(patchedBook)
+                    .verifyComplete();
+        }
+
         @Test
         void testUpdateBook_InvalidId() {
-            Mockito.when(bookRepository.findById(anyInt()))
+            Mockito.when(bookRepository.updateReturning(anyInt(), any(Book.class)))
                     .thenReturn(Mono.empty());
 
             Mono<Book> updatedBook = bookService.update(new Book(1, "Title", "Desc", "Publisher", "Author"), -1);
@@ -128,6 +223,44 @@ import static org.mockito.ArgumentMatchers.anyInt;
                     .verifyComplete();
         }
 
+        @Test
+        void testGetBooksByIds() {
+            Book book1 = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+            Book book3 = new Book(3, "Book 3", "Description 3", "Publisher 3", "Author 3");
+
+            Mockito.when(bookRepository.findAllByIds(List.of(3, 9, 1))).thenReturn(Flux.just(book1, book3));
+
+            StepVerifier.create(bookService.getAll(List.of(3, 9, 1, 3)))
+                    .expectNext(BookLookupResult.found(book3))
+                    .expectNext(BookLookupResult.missing(9))
+                    .expectNext(BookLookupResult.found(book1))
+                    .expectNext(BookLookupResult.found(book3))
+                    .verifyComplete();
+            Mockito.verify(bookRepository, Mockito.times(1)).findAllByIds(Mockito.anyCollection());
+        }
+
+        @Test
+        void testGetPageWithSelectedFields() {
+            Set<BookField> fields = EnumSet.of(BookField.BOOK_ID, BookField.NAME);
+            Book book = new Book();
+            book.setBookId(1);
+            book.setName("Book 1");
+
+            Mockito.when(bookRepository.findPage(0, 3, fields)).thenReturn(Flux.just(book));
+
+            StepVerifier.create(bookService.getPage(0, 2, fields))
+                    .expectNextMatches(page -> page.books().equals(List.of(book)) && !page.hasMore())
+                    .verifyComplete();
+            Mockito.verify(bookRepository, Mockito.never()).findPage(anyInt(), anyInt());
+        }
+
+        @Test
+        void testSearch_PageBeyondIntRange() {
+            StepVerifier.create(bookService.search("spring", Integer.MAX_VALUE, 20, null))
+                    .verifyComplete();
+            Mockito.verify(bookRepository, Mockito.never()).findAllByIds(Mockito.anyCollection(), Mockito.any());
+        }
+
         @Test
         void testUpdateBook_WithNullBook() {
             Mockito.when(bookRepository.save(Mockito.any()))
@@ -0,0 +1,90 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.changes.BookChangeFeed;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.InMemoryBookRepository;
+import com.reactive.ReactiveProject.snapshot.BookSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private BookSnapshot open(InMemoryBookRepository bookRepository) throws Exception {
+        BookSnapshot snapshot = new BookSnapshot(directory, DataSize.ofMegabytes(1), new SimpleMeterRegistry());
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        ReflectionTestUtils.setField(snapshot, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(snapshot, "changeFeed", beans.getBeanProvider(BookChangeFeed.class));
+        snapshot.start();
+        return snapshot;
+    }
+
+    private Mono<Book> load(int bookId) {
+        loads.incrementAndGet();
+        return Mono.empty();
+    }
+
+    @Test
+    @DisplayName("A restarted node serves the mapped snapshot without reading the table")
+    void warmStartTest() throws Exception {
+        InMemoryBookRepository bookRepository = new InMemoryBookRepository();
+        bookRepository.insertAll(List.of(
+                new Book(0, "Dune", "Desert planet", "Chilton", "Frank Herbert"),
+                new Book(0, "Emma", "Matchmaking", "John Murray", "Jane Austen"),
+                new Book(0, "Children of Dune", "Sequel", "Putnam", "Frank Herbert"))).blockLast();
+
+        BookSnapshot snapshot = open(bookRepository);
+        assert snapshot.isCurrent();
+        snapshot.put(new Book(2, "Emma", "Matchmaking", "John Murray", "J. Austen"));
+        snapshot.remove(3);
+        snapshot.stop();
+
+        BookSnapshot restarted = open(new InMemoryBookRepository());
+        assert restarted.isCurrent();
+        StepVerifier.create(restarted.get(1, this::load))
+                .expectNextMatches(book -> book.getName().equals("Dune") && book.getDescription().equals("Desert planet"))
+                .verifyComplete();
+        StepVerifier.create(restarted.get(3, this::load))
+                .verifyComplete();
+        StepVerifier.create(restarted.findByAuthor("Frank Herbert", this::load).map(Book::getBookId))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(restarted.findByAuthor("J. Austen", this::load).map(Book::getBookId))
+                .expectNext(2)
+                .verifyComplete();
+        assertEquals(0, loads.get());
+        restarted.stop();
+    }
+
+    @Test
+    @DisplayName("A book too large for a segment is stored without its description and read through")
+    void oversizedBookTest() throws Exception {
+        BookSnapshot snapshot = open(new InMemoryBookRepository());
+        snapshot.put(new Book(7, "Long", "x".repeat(2 * 1024 * 1024), "Publisher", "Author"));
+
+        StepVerifier.create(snapshot.get(7, this::load))
+                .verifyComplete();
+        assertEquals(1, loads.get());
+        StepVerifier.create(snapshot.findByAuthor("Author", bookId -> Mono.just(new Book(bookId, "Long", "", "Publisher", "Author"))))
+                .expectNextCount(1)
+                .verifyComplete();
+        snapshot.stop();
+    }
+}
@@ -0,0 +1,120 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.cache.BookCache;
+import com.reactive.ReactiveProject.changes.BookChangeListener;
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.services.BookService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// two application nodes sharing one database, as behind the load balancer
+@Testcontainers
+class CacheCoherenceIntegrationTest {
+
+    static {
+        System.setProperty("testcontainers.ryuk.container.image", "testcontainers/ryuk:0.3.3");
+    }
+
+    //    writes on one node must be visible on the other within this bound
+    private static final Duration STALENESS_BOUND = Duration.ofSeconds(2);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName("boot_work1")
+            .withUsername("postgres")
+            .withPassword("mysecretpassword");
+
+    private static ConfigurableApplicationContext nodeA;
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        awaitListening(nodeA);
+        awaitListening(nodeB);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(ReactiveProjectApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.r2dbc.url=r2dbc:postgresql://" + postgreSQLContainer.getHost() + ":"
+                                + postgreSQLContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/"
+                                + postgreSQLContainer.getDatabaseName(),
+                        "spring.r2dbc.username=" + postgreSQLContainer.getUsername(),
+                        "spring.r2dbc.password=" + postgreSQLContainer.getPassword(),
+                        "spring.flyway.url=" + postgreSQLContainer.getJdbcUrl(),
+                        "spring.flyway.user=" + postgreSQLContainer.getUsername(),
+                        "spring.flyway.password=" + postgreSQLContainer.getPassword())
+                .run();
+    }
+
+    private static void awaitListening(ConfigurableApplicationContext node) {
+        BookChangeListener changeListener = node.getBean(BookChangeListener.class);
+        Flux.interval(Duration.ofMillis(50))
+                .filter(tick -> changeListener.isListening())
+                .blockFirst(Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("An update on one node evicts the cached copy on the other")
+    void updateTest() {
+        BookService serviceA = nodeA.getBean(BookService.class);
+        BookService serviceB = nodeB.getBean(BookService.class);
+        Book book = serviceA.create(new Book(0, "Original", "Description", "Publisher", "Author")).block();
+
+        //    warm node B's cache, then update through node A
+        assertEquals("Original", serviceB.get(book.getBookId()).block().getName());
+        assert nodeB.getBean(BookCache.class).isCoherent();
+        serviceA.update(new Book(book.getBookId(), "Updated", "Description", "Publisher", "Author"), book.getBookId())
+                .block();
+
+        Book seenByB = awaitOnNodeB(serviceB.get(book.getBookId()), seen -> "Updated".equals(seen.getName()));
+        assertEquals("Updated", seenByB.getName());
+    }
+
+    @Test
+    @DisplayName("A delete on one node evicts the cached copy on the other")
+    void deleteTest() {
+        BookService serviceA = nodeA.getBean(BookService.class);
+        BookService serviceB = nodeB.getBean(BookService.class);
+        Book book = serviceA.create(new Book(0, "Doomed", "Description", "Publisher", "Author")).block();
+
+        assertEquals("Doomed", serviceB.get(book.getBookId()).block().getName());
+        serviceA.delete(book.getBookId()).block();
+
+        Book seenByB = awaitOnNodeB(serviceB.get(book.getBookId()).defaultIfEmpty(new Book()),
+                seen -> seen.getBookId() == 0);
+        assertEquals(0, seenByB.getBookId());
+    }
+
+    //    polls until the read satisfies the condition, failing once the staleness bound has passed
+    private static Book awaitOnNodeB(Mono<Book> read, Predicate<Book> condition) {
+        return Flux.interval(Duration.ZERO, Duration.ofMillis(20))
+                .concatMap(tick -> read)
+                .filter(condition)
+                .blockFirst(STALENESS_BOUND);
+    }
+}
@@ -0,0 +1,79 @@
+package com.reactive.ReactiveProject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.ReactiveProject.codec.CachedBookJsonEncoder;
+import com.reactive.ReactiveProject.entities.Book;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedBookJsonEncoderTest {
+
+    private static final ResolvableType BOOK_TYPE = ResolvableType.forClass(Book.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CachedBookJsonEncoder encoder = new CachedBookJsonEncoder(objectMapper, 1024 * 1024);
+
+    private String encode(Object body) {
+        return Flux.from(encoder.encode(body instanceof Book book ? Mono.just(book) : (Flux<?>) body,
+                        DefaultDataBufferFactory.sharedInstance, BOOK_TYPE, MediaType.APPLICATION_JSON, Map.of()))
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .reduce(String::concat)
+                .block();
+    }
+
+    @Test
+    @DisplayName("Cached bytes match Jackson and are reused only for equal books")
+    void cachedBytesTest() throws Exception {
+        Book book = new Book(1, "Name", "Description", "Publisher", "Author");
+        Book partial = new Book();
+        partial.setBookId(2);
+        partial.setName("Only a name");
+
+        assertEquals(objectMapper.writeValueAsString(book), encode(book));
+        assertEquals("{\"bookId\":2,\"name\":\"Only a name\"}", encode(partial));
+
+        byte[] first = encoder.bytes(book);
+        assertSame(first, encoder.bytes(new Book(1, "Name", "Description", "Publisher", "Author")));
+        assertEquals(2, encoder.stats().hitCount());
+
+        book.setName("Renamed");
+        byte[] renamed = encoder.bytes(book);
+        assertFalse(first == renamed);
+        assertArrayEquals(objectMapper.writeValueAsBytes(book), renamed);
+    }
+
+    @Test
+    @DisplayName("Streams of books are left to Jackson and bypass the cache")
+    void streamDelegationTest() throws Exception {
+        Book book1 = new Book(1, "Book 1", "Description 1", "Publisher 1", "Author 1");
+        Book book2 = new Book(2, "Book 2", "Description 2", "Publisher 2", "Author 2");
+
+        StepVerifier.create(Mono.fromCallable(() -> encode(Flux.just(book1, book2))))
+                .expectNext("[" + objectMapper.writeValueAsString(book1) + "," + objectMapper.writeValueAsString(book2) + "]")
+                .verifyComplete();
+        assertEquals(0, encoder.stats().requestCount());
+        assertTrue(encoder.canEncode(BOOK_TYPE, MediaType.APPLICATION_JSON));
+        assertFalse(encoder.canEncode(BOOK_TYPE, MediaType.APPLICATION_NDJSON));
+    }
+}
@@ -0,0 +1,94 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import com.reactive.ReactiveProject.services.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Testcontainers
+class ConcurrentUpdateIntegrationTest {
+
+    static {
+        System.setProperty("testcontainers.ryuk.container.image", "testcontainers/ryuk:0.3.3");
+    }
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName("boot_work1")
+            .withUsername("postgres")
+            .withPassword("mysecretpassword");
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgreSQLContainer.getHost() + ":"
+                + postgreSQLContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/"
+                + postgreSQLContainer.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgreSQLContainer::getUsername);
+        registry.add("spring.r2dbc.password", postgreSQLContainer::getPassword);
+        registry.add("spring.flyway.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.flyway.user", postgreSQLContainer::getUsername);
+        registry.add("spring.flyway.password", postgreSQLContainer::getPassword);
+    }
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll().block();
+    }
+
+    @Test
+    @DisplayName("Concurrent patches of different fields are all kept")
+    void concurrentPartialUpdatesTest() {
+        Book book = bookRepository.save(new Book(0, "Name", "Description", "Publisher", "Author")).block();
+        int bookId = book.getBookId();
+        int rounds = 100;
+
+        Flux<Book> nameWriter = Flux.range(0, rounds)
+                .concatMap(i -> bookService.partialUpdate(patch("Name " + i, null), bookId))
+                .subscribeOn(Schedulers.parallel());
+        Flux<Book> authorWriter = Flux.range(0, rounds)
+                .concatMap(i -> bookService.partialUpdate(patch(null, "Author " + i), bookId))
+                .subscribeOn(Schedulers.parallel());
+        Flux.merge(nameWriter, authorWriter).blockLast(Duration.ofSeconds(30));
+
+        Book stored = bookRepository.findById(bookId).block();
+        assertEquals("Name " + (rounds - 1), stored.getName());
+        assertEquals("Author " + (rounds - 1), stored.getAuthor());
+        assertEquals("Description", stored.getDescription());
+    }
+
+    @Test
+    @DisplayName("Updating a missing book returns nothing")
+    void updateMissingBookTest() {
+        assertEquals(null, bookService.update(new Book(0, "Name", "Description", "Publisher", "Author"), 404).block());
+        assertEquals(null, bookService.partialUpdate(patch("Name", null), 404).block());
+    }
+
+    private static Book patch(String name, String author) {
+        Book patch = new Book();
+        patch.setName(name);
+        patch.setAuthor(author);
+        return patch;
+    }
+}
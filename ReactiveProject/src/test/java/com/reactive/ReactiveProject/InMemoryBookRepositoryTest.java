@@ -0,0 +1,164 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
+import com.reactive.ReactiveProject.repositories.InMemoryBookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InMemoryBookRepositoryTest {
+
+    private InMemoryBookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = new InMemoryBookRepository();
+        bookRepository.insertAll(List.of(
+                        new Book(0, "Dune", "Desert planet", "Chilton", "Frank Herbert"),
+                        new Book(0, "Children of Dune", "Sequel", "Putnam", "Frank Herbert"),
+                        new Book(0, "Dune", "Another Dune", "Chilton", "Someone Else")))
+                .blockLast();
+    }
+
+    private static List<Integer> ids(Flux<Book> books) {
+        return books.map(Book::getBookId).collectList().block();
+    }
+
+    @Test
+    @DisplayName("Derived finders are answered from the secondary indexes")
+    void findersTest() {
+        assertEquals(List.of(1, 2), ids(bookRepository.findByAuthor("Frank Herbert")));
+        assertEquals(List.of(1, 2), ids(bookRepository.findByAuthorIgnoreCase("FRANK herbert")));
+        assertEquals(List.of(1, 3), ids(bookRepository.findByPublisher("Chilton")));
+        assertEquals(List.of(1), ids(bookRepository.findByNameAndAuthor("Dune", "Frank Herbert")));
+        assertEquals(List.of(1, 3), ids(bookRepository.findByNameIgnoreCase("dune")));
+        assertEquals(List.of(), ids(bookRepository.findByAuthor("Nobody")));
+
+        StepVerifier.create(bookRepository.findByName("Children of Dune"))
+                .expectNextMatches(book -> book.getBookId() == 2)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Updates move a book between index entries")
+    void updateReindexesTest() {
+        StepVerifier.create(bookRepository.partialUpdateReturning(1, authorOnly("Brian Herbert")))
+                .expectNextMatches(book -> book.getName().equals("Dune") && book.getAuthor().equals("Brian Herbert"))
+                .verifyComplete();
+
+        assertEquals(List.of(2), ids(bookRepository.findByAuthor("Frank Herbert")));
+        assertEquals(List.of(1), ids(bookRepository.findByAuthor("Brian Herbert")));
+        assertEquals(List.of(1), ids(bookRepository.findByNameAndAuthor("Dune", "Brian Herbert")));
+
+        StepVerifier.create(bookRepository.updateReturning(99, authorOnly("Brian Herbert")))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Pages follow id order and skip deleted books")
+    void pageTest() {
+        bookRepository.insertAll(List.of(new Book(0, "Dune Messiah", "Second", "Putnam", "Frank Herbert"))).blockLast();
+        StepVerifier.create(bookRepository.deleteByBookId(2))
+                .expectNext(1)
+                .verifyComplete();
+
+        assertEquals(List.of(1, 3), ids(bookRepository.findPage(0, 2)));
+        assertEquals(List.of(4), ids(bookRepository.findPage(3, 2)));
+        assertEquals(List.of(1, 3, 4), ids(bookRepository.findAll()));
+        assertEquals(3L, bookRepository.count().block());
+        assertEquals(List.of(1, 4), ids(bookRepository.findByAuthor("Frank Herbert")));
+        assertEquals(2L, bookRepository.deleteAllByIds(List.of(1, 2, 3, 3)).block());
+    }
+
+    @Test
+    @DisplayName("Stored books are copies, projected on request")
+    void copiesTest() {
+        Book book = bookRepository.findById(1).block();
+        book.setName("Changed by the caller");
+
+        StepVerifier.create(bookRepository.findAllByIds(List.of(1, 1, 7), EnumSet.of(BookField.BOOK_ID, BookField.NAME)))
+                .expectNextMatches(found -> found.getName().equals("Dune") && found.getAuthor() == null)
+                .verifyComplete();
+        assertNull(bookRepository.findById(7).block());
+    }
+
+    @Test
+    @DisplayName("Saving assigns new ids and refuses to update a missing book")
+    void saveTest() {
+        Book book = new Book(0, "Heretics of Dune", "Fifth", "Putnam", "Frank Herbert");
+
+        StepVerifier.create(bookRepository.save(book))
+                .expectNextMatches(saved -> saved.getBookId() == 4 && saved.getVersion() == 0)
+                .verifyComplete();
+        Book missing = new Book(42, "Missing", "", "", "");
+        missing.setVersion(0);
+        StepVerifier.create(bookRepository.save(missing))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Every update bumps the version and conditional updates need the current one")
+    void versionTest() {
+        StepVerifier.create(bookRepository.partialUpdateReturning(1, authorOnly("Brian Herbert")))
+                .expectNextMatches(book -> book.getVersion() == 1)
+                .verifyComplete();
+        StepVerifier.create(bookRepository.updateReturning(1, 0, authorOnly("Kevin J. Anderson")))
+                .verifyComplete();
+        StepVerifier.create(bookRepository.partialUpdateReturning(1, 1, authorOnly("Kevin J. Anderson")))
+                .expectNextMatches(book -> book.getVersion() == 2 && book.getName().equals("Dune"))
+                .verifyComplete();
+
+        Book stale = bookRepository.findById(2).block();
+        bookRepository.partialUpdateReturning(2, authorOnly("Brian Herbert")).block();
+        StepVerifier.create(bookRepository.save(stale))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        StepVerifier.create(bookRepository.findAllByIds(List.of(2), BookField.VERSIONS))
+                .expectNextMatches(book -> book.getVersion() == 1 && book.getAuthor() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Full-text search matches every term and ranks by the fields it matches in")
+    void fullTextSearchTest() {
+        assertEquals(List.of(3, 1, 2), ids(bookRepository.fullTextSearch("dune", 10, 0, BookField.ALL)));
+        assertEquals(List.of(1), ids(bookRepository.fullTextSearch("dune", 1, 1, BookField.ALL)));
+        assertEquals(List.of(1, 2), ids(bookRepository.fullTextSearch("Herbert dune", 10, 0, BookField.ALL)));
+        assertEquals(List.of(), ids(bookRepository.fullTextSearch("dune tolkien", 10, 0, BookField.ALL)));
+        assertEquals(List.of(), ids(bookRepository.fullTextSearch("the", 10, 0, BookField.ALL)));
+    }
+
+    @Test
+    @DisplayName("A large index entry stays sorted through bulk inserts and deletes")
+    void largeIndexEntryTest() {
+        List<Book> books = new ArrayList<>();
+        IntStream.range(0, 20_000).forEach(i -> books.add(new Book(0, "Book " + i, "Description", "Tor", "Prolific")));
+        List<Integer> inserted = bookRepository.insertAll(books).collectList().block();
+        bookRepository.deleteAllByIds(inserted.subList(0, 19_990)).block();
+        bookRepository.insertAll(List.of(new Book(0, "Late", "Description", "Tor", "Prolific"))).blockLast();
+
+        List<Integer> expected = new ArrayList<>(inserted.subList(19_990, 20_000));
+        expected.add(inserted.get(19_999) + 1);
+        assertEquals(expected, ids(bookRepository.findByAuthor("Prolific")));
+        assertEquals(expected, ids(bookRepository.findByPublisher("Tor")));
+    }
+
+    private static Book authorOnly(String author) {
+        Book book = new Book();
+        book.setAuthor(author);
+        return book;
+    }
+}
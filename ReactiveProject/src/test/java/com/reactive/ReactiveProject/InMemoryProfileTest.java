@@ -0,0 +1,53 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import com.reactive.ReactiveProject.repositories.InMemoryBookRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+// the whole application without a database: no container, no connection factory
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("inmemory")
+public class InMemoryProfileTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    @DisplayName("The inmemory profile serves the API from InMemoryBookRepository")
+    void inMemoryProfileTest() {
+        //    proxied twice: by @Repository exception translation and by the method metrics
+        assert AopProxyUtils.ultimateTargetClass(bookRepository) == InMemoryBookRepository.class;
+
+        Book created = webTestClient.post().uri("/books")
+                .bodyValue(new Book(0, "In Memory", "Description", "Publisher", "Offline Author"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Book.class)
+                .returnResult()
+                .getResponseBody();
+
+        webTestClient.get().uri("/books/{id}", created.getBookId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Book.class)
+                .value(book -> {
+                    assert book.getName().equals("In Memory");
+                });
+
+        webTestClient.get().uri("/books/author/{author}", "Offline Author")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Book.class)
+                .hasSize(1);
+    }
+}
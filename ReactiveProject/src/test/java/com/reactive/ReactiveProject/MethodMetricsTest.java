@@ -0,0 +1,79 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import com.reactive.ReactiveProject.services.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// a mocked repository would be registered as a finished singleton and never reach the metrics proxy, so the
+// inmemory profile supplies a real one, and no database
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@ActiveProfiles("inmemory")
+class MethodMetricsTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll()
+                .thenMany(bookRepository.saveAll(List.of(
+                        new Book(0, "Book 1", "Description 1", "Publisher 1", "Author 1"),
+                        new Book(0, "Book 2", "Description 2", "Publisher 2", "Author 1"))))
+                .blockLast();
+        meterRegistry.clear();
+    }
+
+    @Test
+    void testServiceAndRepositoryCallsAreTimed() {
+        StepVerifier.create(bookService.findByAuthor("Author 1"))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get("books.service").tag("method", "findByAuthor").tag("outcome", "success")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("books.repository").tag("method", "findByAuthor").tag("outcome", "success")
+                .timer().count());
+        assertEquals(2, meterRegistry.get("books.repository.rows").tag("method", "findByAuthor")
+                .summary().totalAmount());
+    }
+
+    @Test
+    void testRouteLatenciesAreScraped() {
+        webTestClient.get().uri("/books/author/{author}", "Author 2")
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> {
+                    assert body.contains("http_server_requests_seconds_bucket");
+                    assert body.contains("uri=\"/books/author/{author}\"");
+                    assert body.contains("books_repository_seconds_bucket");
+                });
+    }
+}
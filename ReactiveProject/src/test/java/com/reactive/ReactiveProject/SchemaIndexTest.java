@@ -0,0 +1,198 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.entities.Book;
+import com.reactive.ReactiveProject.entities.BookField;
+import com.reactive.ReactiveProject.metrics.RouteContext;
+import com.reactive.ReactiveProject.metrics.SlowQueryLog;
+import com.reactive.ReactiveProject.repositories.BookRepository;
+import io.r2dbc.proxy.core.Binding;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mockito;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Testcontainers
+class SchemaIndexTest {
+
+    static {
+        System.setProperty("testcontainers.ryuk.container.image", "testcontainers/ryuk:0.3.3");
+    }
+
+    private static final int ROWS = 20_000;
+
+    //    marks the statements of the call under test, apart from the index rebuild and change-feed queries
+    private static final String ROUTE = "schema-index-test";
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName("boot_work1")
+            .withUsername("postgres")
+            .withPassword("mysecretpassword");
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgreSQLContainer.getHost() + ":"
+                + postgreSQLContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/"
+                + postgreSQLContainer.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgreSQLContainer::getUsername);
+        registry.add("spring.r2dbc.password", postgreSQLContainer::getPassword);
+        registry.add("spring.flyway.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.flyway.user", postgreSQLContainer::getUsername);
+        registry.add("spring.flyway.password", postgreSQLContainer::getPassword);
+    }
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    //    every statement passes this listener on its way to the driver, so it sees the SQL exactly as sent
+    @SpyBean
+    private SlowQueryLog slowQueryLog;
+
+    private final List<QueryInfo> issued = new CopyOnWriteArrayList<>();
+
+    //    enough rows, analyzed, that the planner prefers a sequential scan wherever no index fits
+    @BeforeAll
+    static void seed(@Autowired DatabaseClient databaseClient) {
+        databaseClient.sql("insert into book_details (name, book_desc, publisher, author)"
+                        + " select case when i % 1000 = 0 then 'Reactive Spring ' || i else 'Book ' || i end,"
+                        + " 'Description ' || i, 'Publisher ' || (i % 500), 'Author ' || (i % 2000)"
+                        + " from generate_series(1, " + ROWS + ") as i")
+                .fetch()
+                .rowsUpdated()
+                .then(databaseClient.sql("analyze book_details").then())
+                .block();
+    }
+
+    @BeforeEach
+    void captureStatements() {
+        Mockito.doAnswer(invocation -> {
+            QueryExecutionInfo execution = invocation.getArgument(0);
+            if (underTest(execution)) {
+                issued.addAll(execution.getQueries());
+            }
+            return invocation.callRealMethod();
+        }).when(slowQueryLog).afterQuery(Mockito.any());
+    }
+
+    private static boolean underTest(QueryExecutionInfo execution) {
+        ContextView context = execution.getValueStore().get(ContextView.class, ContextView.class);
+        return ROUTE.equals(RouteContext.from(context));
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        Book book = new Book(0, "Book", "Description", "Publisher", "Author");
+        return Stream.of(
+                query("findById", repository -> repository.findById(4242)),
+                query("findByName", repository -> repository.findByName("Book 4242")),
+                query("findByAuthor", repository -> repository.findByAuthor("Author 242")),
+                query("findByPublisher", repository -> repository.findByPublisher("Publisher 42")),
+                query("findByNameAndAuthor", repository -> repository.findByNameAndAuthor("Book 4242", "Author 242")),
+                query("findByNameIgnoreCase", repository -> repository.findByNameIgnoreCase("book 4242")),
+                query("findByAuthorIgnoreCase", repository -> repository.findByAuthorIgnoreCase("author 242")),
+                query("findPage", repository -> repository.findPage(10_000, 100)),
+                query("getAllBooksByAuthor", repository -> repository.getAllBooksByAuthor("Book 4242", "Author 242")),
+                query("deleteByBookId", repository -> repository.deleteByBookId(-1)),
+                query("findAllByIds", repository -> repository.findAllByIds(List.of(1, 2, 3))),
+                query("findAllByIds with fields", repository -> repository.findAllByIds(List.of(1, 2, 3), BookField.VERSIONS)),
+                query("findPage with fields", repository -> repository.findPage(10_000, 100, BookField.ALL)),
+                query("findByAuthor with fields", repository -> repository.findByAuthor("author 242", true, BookField.ALL)),
+                query("findByNameAndAuthor with fields",
+                        repository -> repository.findByNameAndAuthor("Book 4242", "Author 242", BookField.ALL)),
+                query("fullTextSearch", repository -> repository.fullTextSearch("reactive spring", 20, 0, BookField.ALL)),
+                query("updateReturning", repository -> repository.updateReturning(-1, book)),
+                query("partialUpdateReturning", repository -> repository.partialUpdateReturning(-1, 1, book)),
+                query("deleteAllByIds", repository -> repository.deleteAllByIds(List.of(-1, -2)))
+        );
+    }
+
+    private static Arguments query(String name, Function<BookRepository, Publisher<?>> query) {
+        return Arguments.of(Named.of(name, query));
+    }
+
+    //    the plans are taken for the statements BookRepository issues, with the values it bound, and seq scans allowed
+    @ParameterizedTest
+    @MethodSource("repositoryQueries")
+    @DisplayName("Every repository query is answered from an index")
+    void repositoryQueriesUseIndexesTest(Function<BookRepository, Publisher<?>> query) {
+        Flux.from(query.apply(bookRepository))
+                .contextWrite(RouteContext.of(ROUTE))
+                .blockLast(Duration.ofSeconds(10));
+        Mockito.verify(slowQueryLog, Mockito.timeout(5_000).atLeastOnce())
+                .afterQuery(Mockito.argThat(SchemaIndexTest::underTest));
+
+        List<QueryInfo> statements = List.copyOf(issued);
+        assertFalse(statements.isEmpty());
+        for (QueryInfo statement : statements) {
+            String plan = explain(statement);
+
+            assertTrue(plan.contains("Index"), statement.getQuery() + "\n" + plan);
+            assertFalse(plan.contains("Seq Scan"), statement.getQuery() + "\n" + plan);
+        }
+    }
+
+    private String explain(QueryInfo query) {
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement("explain " + query.getQuery());
+                    if (!query.getBindingsList().isEmpty()) {
+                        query.getBindingsList().get(0).getIndexBindings().forEach(binding -> bind(statement, binding));
+                        query.getBindingsList().get(0).getNamedBindings().forEach(binding -> bind(statement, binding));
+                    }
+                    return Flux.from(statement.execute())
+                            .concatMap(result -> result.map((row, metadata) -> row.get(0, String.class)));
+                })
+                .collect(Collectors.joining("\n"))
+                .block();
+    }
+
+    private static void bind(Statement statement, Binding binding) {
+        BoundValue value = binding.getBoundValue();
+        if (binding.getKey() instanceof Integer index) {
+            if (value.isNull()) {
+                statement.bindNull(index, value.getNullType());
+            } else {
+                statement.bind(index, value.getValue());
+            }
+        } else {
+            String name = (String) binding.getKey();
+            if (value.isNull()) {
+                statement.bindNull(name, value.getNullType());
+            } else {
+                statement.bind(name, value.getValue());
+            }
+        }
+    }
+}
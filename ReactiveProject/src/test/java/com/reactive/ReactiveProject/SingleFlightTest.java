@@ -0,0 +1,110 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.cache.SingleFlight;
+import com.reactive.ReactiveProject.entities.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SingleFlight<Integer, Book> singleFlight;
+
+    private AtomicInteger queries;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+        queries = new AtomicInteger();
+    }
+
+    //    stands in for findById with a slow database
+    private Mono<Book> findById(int bookId) {
+        return Mono.defer(() -> {
+            queries.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(100))
+                    .map(tick -> new Book(bookId, "Book " + bookId, "Description", "Publisher", "Author"));
+        });
+    }
+
+    @Test
+    @DisplayName("Concurrent callers for a hot key share one query")
+    void hotKeyTest() {
+        StepVerifier.create(Flux.range(0, 500).flatMap(i -> singleFlight.execute(1, this::findById), 500))
+                .expectNextCount(500)
+                .verifyComplete();
+
+        assertEquals(1, queries.get());
+        assertEquals(499, meterRegistry.counter("books.singleflight.coalesced", "name", "test").count());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    @DisplayName("Different keys and later calls are not coalesced")
+    void releaseTest() {
+        StepVerifier.create(Flux.range(1, 3).flatMap(id -> singleFlight.execute(id, this::findById)))
+                .expectNextCount(3)
+                .verifyComplete();
+        StepVerifier.create(singleFlight.execute(1, this::findById))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(4, queries.get());
+    }
+
+    @Test
+    @DisplayName("Empty results and errors are shared and released")
+    void emptyAndErrorTest() {
+        StepVerifier.create(singleFlight.execute(1, id -> Mono.empty()))
+                .verifyComplete();
+        StepVerifier.create(Flux.merge(
+                        singleFlight.execute(2, id -> Mono.delay(Duration.ofMillis(50))
+                                .then(Mono.error(new IllegalStateException("down")))),
+                        singleFlight.execute(2, this::findById)))
+                .verifyErrorMessage("down");
+
+        assertEquals(0, queries.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    @DisplayName("Callers after forget() do not join the load started before it")
+    void forgetTest() {
+        Mono<Book> before = singleFlight.execute(1, this::findById).cache();
+        before.subscribe();
+        singleFlight.forget(1);
+        Mono<Book> after = singleFlight.execute(1, this::findById);
+
+        StepVerifier.create(Flux.merge(before, after))
+                .expectNextCount(2)
+                .verifyComplete();
+        assertEquals(2, queries.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    @DisplayName("A loader that throws fails its callers and releases the key")
+    void throwingLoaderTest() {
+        StepVerifier.create(singleFlight.execute(1, id -> {
+                    throw new IllegalStateException("broken");
+                }))
+                .verifyErrorMessage("broken");
+
+        assertEquals(0, singleFlight.inFlight());
+        StepVerifier.create(singleFlight.execute(1, this::findById))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+}
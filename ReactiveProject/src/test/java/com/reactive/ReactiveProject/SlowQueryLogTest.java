@@ -0,0 +1,90 @@
+package com.reactive.ReactiveProject;
+
+import com.reactive.ReactiveProject.metrics.RouteContext;
+import com.reactive.ReactiveProject.metrics.SlowQuery;
+import com.reactive.ReactiveProject.metrics.SlowQueryLog;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryLogTest {
+
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ofMillis(100), 4, true);
+
+    private void record(int i) {
+        slowQueryLog.record("select " + i, List.of("[$1=?]"), i, Duration.ofMillis(100 + i), "GET /books/{bid}", true);
+    }
+
+    @Test
+    @DisplayName("The ring keeps the newest records, newest first")
+    void ringBufferTest() {
+        for (int i = 0; i < 6; i++) {
+            record(i);
+        }
+
+        List<SlowQuery> queries = slowQueryLog.snapshot();
+        assertEquals(List.of("select 5", "select 4", "select 3", "select 2"),
+                queries.stream().map(SlowQuery::sql).toList());
+        assertEquals(105.0, queries.get(0).durationMillis());
+        assertEquals("GET /books/{bid}", queries.get(0).route());
+
+        slowQueryLog.clear();
+        assertTrue(slowQueryLog.snapshot().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Concurrent writers never corrupt the snapshot")
+    void concurrentWritersTest() {
+        Flux.range(0, 10_000)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .doOnNext(this::record)
+                .sequential()
+                .blockLast(Duration.ofSeconds(10));
+
+        List<SlowQuery> queries = slowQueryLog.snapshot();
+        assertEquals(4, queries.size());
+        for (int i = 1; i < queries.size(); i++) {
+            assertTrue(queries.get(i - 1).seq() > queries.get(i).seq());
+        }
+    }
+
+    @Test
+    @DisplayName("Statements run through the proxy are recorded with the route of their subscriber")
+    void proxiedStatementTest() {
+        SlowQueryLog everyQuery = new SlowQueryLog(Duration.ZERO, 4, true);
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.doReturn(Flux.empty()).when(statement).execute();
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.createStatement(Mockito.anyString())).thenReturn(statement);
+        ConnectionFactory driver = Mockito.mock(ConnectionFactory.class);
+        Mockito.doReturn(Mono.just(connection)).when(driver).create();
+        ConnectionFactory connections = ProxyConnectionFactory.builder(driver).listener(everyQuery).build();
+
+        Mono.from(connections.create())
+                .flatMapMany(proxied -> proxied.createStatement("select 1").execute())
+                .contextWrite(RouteContext.of("GET /books/{bid}"))
+                .blockLast(Duration.ofSeconds(5));
+        Flux.from(connections.create())
+                .flatMap(proxied -> proxied.createStatement("select 2").execute())
+                .blockLast(Duration.ofSeconds(5));
+
+        List<SlowQuery> queries = everyQuery.snapshot();
+        assertEquals(List.of("select 2", "select 1"), queries.stream().map(SlowQuery::sql).toList());
+        assertEquals("-", queries.get(0).route());
+        assertEquals("GET /books/{bid}", queries.get(1).route());
+    }
+}